@@ -9,11 +9,15 @@ import com.github.twitch4j.auth.TwitchAuth;
 import com.github.twitch4j.auth.providers.TwitchIdentityProvider;
 import com.jagrosh.jdautilities.oauth2.OAuth2Client;
 import de.presti.ree6.backend.bot.BotWorker;
+import de.presti.ree6.backend.bot.WebhookReconciler;
 import de.presti.ree6.backend.bot.version.BotVersion;
 import de.presti.ree6.backend.utils.data.*;
+import de.presti.ree6.backend.utils.data.cache.CacheStats;
+import de.presti.ree6.backend.utils.data.cache.ExpiringCache;
+import de.presti.ree6.backend.service.RecordingService;
+import de.presti.ree6.backend.utils.data.recording.TranscodeCache;
 import de.presti.ree6.sql.DatabaseTyp;
 import de.presti.ree6.sql.SQLSession;
-import de.presti.ree6.sql.entities.Recording;
 import de.presti.ree6.sql.entities.TwitchIntegration;
 import de.presti.ree6.backend.utils.ThreadUtil;
 import lombok.AccessLevel;
@@ -43,6 +47,12 @@ public class Server {
     @Getter
     OAuth2Client oAuth2Client;
 
+    /**
+     * Session Controller of the OAuth2 Client, used to remove Sessions on logout.
+     */
+    @Getter
+    RevocableSessionController sessionController;
+
     /**
      * Twitch Client instance.
      */
@@ -90,7 +100,9 @@ public class Server {
         config.init();
 
         // Creating OAuth2 Instance.
-        oAuth2Client = new OAuth2Client.Builder().setClientId(config.getConfiguration().getLong("discord.client.id")).setClientSecret(config.getConfiguration().getString("discord.client.secret")).build();
+        sessionController = new RevocableSessionController();
+        oAuth2Client = new OAuth2Client.Builder().setClientId(config.getConfiguration().getLong("discord.client.id")).setClientSecret(config.getConfiguration().getString("discord.client.secret"))
+                .setSessionController(sessionController).build();
 
         // Create a new JDA Session.
         try {
@@ -152,20 +164,12 @@ public class Server {
                 .withEnablePubSub(false)
                 .build();
 
+        WebhookReconciler.start();
+
         // Add onShutdown as call methode when Shutdown.
         Runtime.getRuntime().addShutdownHook(new Thread(this::onShutdown));
 
         ThreadUtil.createNewThread(x -> {
-            List<Recording> recordings = SQLSession.getSqlConnector().getSqlWorker().getEntityList(new Recording(), "FROM Recording", null);
-
-            if (recordings != null && !recordings.isEmpty()) {
-                for (Recording recording : recordings) {
-                    if (recording.getCreation() < System.currentTimeMillis() - Duration.ofDays(1).toMillis()) {
-                        SQLSession.getSqlConnector().getSqlWorker().deleteEntity(recording);
-                    }
-                }
-            }
-
             List<TwitchIntegration> twitchIntegrations = SQLSession.getSqlConnector().getSqlWorker().getEntityList(new TwitchIntegration(), "FROM TwitchIntegration", null);
             twitchIntegrations.forEach(twitchIntegration -> {
                 if (twitchIntegration.getLastUpdated().getTime() + (twitchIntegration.getExpiresIn() * 1000L) - Duration.ofMinutes(10).toMillis() <= System.currentTimeMillis()) {
@@ -182,6 +186,16 @@ public class Server {
                 }
             });
             credentialManager.save();
+
+            for (ExpiringCache<?, ?> cache : ExpiringCache.getCaches()) {
+                cache.cleanUp();
+                CacheStats stats = cache.getStats();
+                log.info("Cache {}: {} entries, {} hits, {} misses ({}% hit rate), {} evictions.", stats.name(), stats.size(),
+                        stats.hits(), stats.misses(), Math.round(stats.hitRate() * 100), stats.evictions());
+            }
+
+            log.info("Recording conversions: {}.", TranscodeCache.getStats());
+            log.info("Recording sweeps: {}.", RecordingService.getSweepStats());
         }, throwable -> log.error("Failed running Data clear Thread", throwable), Duration.ofMinutes(5), true, false);
     }
 
@@ -1,13 +1,18 @@
 package de.presti.ree6.backend;
 
+import de.presti.ree6.backend.utils.data.Data;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
+import java.util.Map;
+
 /**
  * Base class used by SpringBoot to boot up the Application.
  */
+@Slf4j
 @EnableJpaRepositories("de.presti.ree6.*")
 @EntityScan("de.presti.ree6.*")
 @SpringBootApplication
@@ -25,6 +30,13 @@ public class WebinterfaceApplication {
         // Initialize the Server class
         new Server(args);
 
+        // Let Tomcat and Spring's task executors use virtual threads if enabled.
+        if (Data.isVirtualThreads()) {
+            log.warn("Virtual threads are enabled, they have not been load tested yet!");
+        }
+
+        application.setDefaultProperties(Map.of("spring.threads.virtual.enabled", Data.isVirtualThreads()));
+
         // Run the Application.
         application.run(args);
     }
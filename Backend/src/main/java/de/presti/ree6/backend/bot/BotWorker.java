@@ -1,6 +1,9 @@
 package de.presti.ree6.backend.bot;
 
 import de.presti.ree6.backend.Server;
+import de.presti.ree6.backend.bot.listener.LeaderboardListener;
+import de.presti.ree6.backend.bot.listener.PermissionListener;
+import de.presti.ree6.backend.bot.listener.WebhookListener;
 import de.presti.ree6.backend.bot.version.BotState;
 import de.presti.ree6.backend.bot.version.BotVersion;
 import lombok.Getter;
@@ -72,8 +75,9 @@ public class BotWorker {
         shardManager = DefaultShardManagerBuilder
                 .createDefault(token)
                 .setShardsTotal(shardAmount)
-                .enableIntents(GatewayIntent.GUILD_MEMBERS, GatewayIntent.MESSAGE_CONTENT)
+                .enableIntents(GatewayIntent.GUILD_MEMBERS, GatewayIntent.MESSAGE_CONTENT, GatewayIntent.GUILD_MODERATION)
                 .setMemberCachePolicy(MemberCachePolicy.ALL)
+                .addEventListeners(new PermissionListener(), new WebhookListener(), new LeaderboardListener())
                 .build();
     }
 
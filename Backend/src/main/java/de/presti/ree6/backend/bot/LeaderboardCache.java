@@ -0,0 +1,178 @@
+package de.presti.ree6.backend.bot;
+
+import de.presti.ree6.backend.utils.ThreadUtil;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.cache.ExpiringCache;
+import de.presti.ree6.backend.utils.data.container.LeaderboardType;
+import de.presti.ree6.backend.utils.data.container.user.UserContainer;
+import de.presti.ree6.backend.utils.data.container.user.UserLevelContainer;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.level.UserLevel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the Leaderboard snapshots of every Guild.
+ * A snapshot is refreshed in the background once it is older than the refresh time and the
+ * {@link de.presti.ree6.backend.bot.listener.LeaderboardListener} noticed activity that could have changed it.
+ */
+@Slf4j
+public class LeaderboardCache {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private LeaderboardCache() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The snapshots, keyed by the Guild ID and the type.
+     */
+    private static final ExpiringCache<String, LeaderboardSnapshot> cache =
+            new ExpiringCache<>("leaderboards", Data.getLeaderboardCacheSize(), Data.getLeaderboardCacheTtl(), null);
+
+    /**
+     * The keys of the Leaderboards that could have changed since their snapshot has been created.
+     * It can't grow beyond two entries per Guild of the Bot.
+     */
+    private static final Set<String> changed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The keys of the snapshots that are currently refreshed in the background.
+     */
+    private static final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Get the snapshot of a Leaderboard, it will only be created if there is no valid snapshot.
+     *
+     * @param guildId the ID of the Guild.
+     * @param type    the type of the Leaderboard.
+     * @return the snapshot.
+     */
+    public static LeaderboardSnapshot getSnapshot(String guildId, LeaderboardType type) {
+        String key = getKey(guildId, type);
+        LeaderboardSnapshot snapshot;
+
+        try {
+            snapshot = cache.get(key, k -> createSnapshot(k, guildId, type));
+        } catch (RuntimeException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new IllegalStateException("Could not create the Leaderboard!", exception);
+        }
+
+        if (System.currentTimeMillis() - snapshot.created() > Data.getLeaderboardCacheRefresh().toMillis() && changed.remove(key)) {
+            refresh(key, guildId, type);
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Mark a Leaderboard as possibly changed, its snapshot will be refreshed with the next request after the refresh time.
+     *
+     * @param guildId the ID of the Guild.
+     * @param type    the type of the Leaderboard.
+     */
+    public static void markChanged(String guildId, LeaderboardType type) {
+        changed.add(getKey(guildId, type));
+    }
+
+    /**
+     * Remove the snapshots of a Guild.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public static void invalidate(String guildId) {
+        for (LeaderboardType type : LeaderboardType.values()) {
+            cache.invalidate(getKey(guildId, type));
+            changed.remove(getKey(guildId, type));
+        }
+    }
+
+    /**
+     * Resolve the Users of Leaderboard entries through the {@link UserProfileCache}.
+     *
+     * @param userLevels the entries.
+     * @return the resolved entries, in the same order.
+     */
+    public static List<UserLevelContainer> resolveUserLevels(List<? extends UserLevel> userLevels) {
+        Map<String, UserContainer> users = UserProfileCache.getUsers(userLevels.stream().map(userLevel -> String.valueOf(userLevel.getUserId())).toList());
+        return userLevels.stream().map(userLevel -> new UserLevelContainer(userLevel, users.get(String.valueOf(userLevel.getUserId())))).toList();
+    }
+
+    /**
+     * Create a snapshot in the background, the current snapshot is served until it is done.
+     *
+     * @param key     the key of the snapshot.
+     * @param guildId the ID of the Guild.
+     * @param type    the type of the Leaderboard.
+     */
+    private static void refresh(String key, String guildId, LeaderboardType type) {
+        if (!refreshing.add(key)) return;
+
+        ThreadUtil.createTask(() -> cache.load(key, k -> createSnapshot(k, guildId, type))).whenComplete((snapshot, throwable) -> {
+            refreshing.remove(key);
+
+            if (throwable != null) {
+                // Try again with the next request.
+                changed.add(key);
+                log.warn("Could not refresh the Leaderboard {}!", key, throwable);
+            }
+        });
+    }
+
+    private static LeaderboardSnapshot createSnapshot(String key, String guildId, LeaderboardType type) {
+        // Changes that happen while the snapshot is created will cause another refresh.
+        changed.remove(key);
+
+        List<? extends UserLevel> userLevels = switch (type) {
+            case CHAT -> SQLSession.getSqlConnector().getSqlWorker().getTopChat(guildId, Data.getLeaderboardTop());
+            case VOICE -> SQLSession.getSqlConnector().getSqlWorker().getTopVoice(guildId, Data.getLeaderboardTop());
+        };
+
+        // The top entries are current, so the rank index does not have to wait for its rebuild to know them.
+        LeaderboardRankIndex.update(guildId, type, userLevels);
+
+        List<UserLevelContainer> entries = resolveUserLevels(userLevels);
+        return new LeaderboardSnapshot(entries, createETag(entries), System.currentTimeMillis());
+    }
+
+    /**
+     * Create a strong entity tag from everything that is shown of the entries.
+     *
+     * @param entries the entries.
+     * @return the quoted entity tag.
+     */
+    private static String createETag(List<UserLevelContainer> entries) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            for (UserLevelContainer entry : entries) {
+                UserContainer user = entry.getUser();
+                digest.update((entry.getUserLevel().getUserId() + "|" + entry.getUserLevel().getExperience() + "|" +
+                        (user != null ? user.getName() + "|" + user.getDiscriminator() + "|" + user.getAvatarUrl() : "") + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available!", exception);
+        }
+    }
+
+    private static String getKey(String guildId, LeaderboardType type) {
+        return guildId + ":" + type.name();
+    }
+}
@@ -0,0 +1,307 @@
+package de.presti.ree6.backend.bot;
+
+import de.presti.ree6.backend.utils.ThreadUtil;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.OrderStatisticTree;
+import de.presti.ree6.backend.utils.data.cache.ExpiringCache;
+import de.presti.ree6.backend.utils.data.container.LeaderboardRankContainer;
+import de.presti.ree6.backend.utils.data.container.LeaderboardRankEntryContainer;
+import de.presti.ree6.backend.utils.data.container.LeaderboardType;
+import de.presti.ree6.backend.utils.data.container.user.UserContainer;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.level.ChatUserLevel;
+import de.presti.ree6.sql.entities.level.UserLevel;
+import de.presti.ree6.sql.entities.level.VoiceUserLevel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the ranks of every User on a Leaderboard, used to look up a single rank without loading the whole Leaderboard.
+ * An index is built once per Guild and type when it is first needed, afterwards the entries that are read anyway
+ * (the requested User and the top of the {@link LeaderboardCache}) are updated in place.
+ * The index is rebuilt in the background once it is older than the rebuild time and the
+ * {@link de.presti.ree6.backend.bot.listener.LeaderboardListener} noticed activity that could have changed it.
+ */
+@Slf4j
+public class LeaderboardRankIndex {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private LeaderboardRankIndex() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The order of a Leaderboard, the same as the one used for its pages.
+     */
+    private static final Comparator<RankEntry> ORDER = Comparator.comparingLong(RankEntry::experience).reversed()
+            .thenComparingLong(RankEntry::userId);
+
+    /**
+     * The indexes, keyed by the Guild ID and the type.
+     */
+    private static final ExpiringCache<String, RankIndex> cache =
+            new ExpiringCache<>("leaderboard-ranks", Data.getRankIndexSize(), Data.getRankIndexTtl(), null);
+
+    /**
+     * The keys of the indexes that could have changed since they have been built.
+     */
+    private static final Set<String> changed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The keys of the indexes that are currently rebuilt in the background.
+     */
+    private static final Set<String> rebuilding = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Get the rank of a User and of the Users around them.
+     *
+     * @param guildId   the ID of the Guild.
+     * @param type      the type of the Leaderboard.
+     * @param userId    the ID of the User.
+     * @param neighbors how many Users above and below should be included.
+     * @return the rank, {@code null} if the User is not on the Leaderboard.
+     */
+    public static LeaderboardRankContainer getRank(String guildId, LeaderboardType type, long userId, int neighbors) {
+        RankIndex index = getIndex(guildId, type);
+
+        // The row of the requested User is always read, so their own rank is never outdated.
+        UserLevel userLevel = switch (type) {
+            case CHAT -> SQLSession.getSqlConnector().getSqlWorker().getEntity(new ChatUserLevel(),
+                    "FROM ChatUserLevel WHERE guildId=:gid AND userId=:uid", Map.of("gid", guildId, "uid", userId));
+            case VOICE -> SQLSession.getSqlConnector().getSqlWorker().getEntity(new VoiceUserLevel(),
+                    "FROM VoiceUserLevel WHERE guildId=:gid AND userId=:uid", Map.of("gid", guildId, "uid", userId));
+        };
+
+        if (userLevel == null) {
+            index.remove(userId);
+            return null;
+        }
+
+        index.put(new RankEntry(userId, userLevel.getExperience()));
+
+        List<RankPosition> positions = index.getPositions(userId, neighbors);
+        Map<String, UserContainer> users = UserProfileCache.getUsers(positions.stream().map(position -> String.valueOf(position.entry().userId())).toList());
+
+        LeaderboardRankEntryContainer entry = null;
+        List<LeaderboardRankEntryContainer> neighborEntries = new ArrayList<>();
+
+        for (RankPosition position : positions) {
+            LeaderboardRankEntryContainer rankEntry = new LeaderboardRankEntryContainer(position.rank(), position.entry().experience(),
+                    users.get(String.valueOf(position.entry().userId())));
+
+            if (position.entry().userId() == userId) {
+                entry = rankEntry;
+            } else {
+                neighborEntries.add(rankEntry);
+            }
+        }
+
+        return new LeaderboardRankContainer(guildId, type, index.size(), entry, neighborEntries);
+    }
+
+    /**
+     * Update the entries of an index, if it exists.
+     *
+     * @param guildId    the ID of the Guild.
+     * @param type       the type of the Leaderboard.
+     * @param userLevels the current entries.
+     */
+    public static void update(String guildId, LeaderboardType type, List<? extends UserLevel> userLevels) {
+        RankIndex index = cache.get(getKey(guildId, type));
+        if (index == null) return;
+
+        for (UserLevel userLevel : userLevels) {
+            index.put(new RankEntry(userLevel.getUserId(), userLevel.getExperience()));
+        }
+    }
+
+    /**
+     * Mark an index as possibly changed, it will be rebuilt with the next request after the rebuild time.
+     *
+     * @param guildId the ID of the Guild.
+     * @param type    the type of the Leaderboard.
+     */
+    public static void markChanged(String guildId, LeaderboardType type) {
+        changed.add(getKey(guildId, type));
+    }
+
+    /**
+     * Remove the indexes of a Guild.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public static void invalidate(String guildId) {
+        for (LeaderboardType type : LeaderboardType.values()) {
+            cache.invalidate(getKey(guildId, type));
+            changed.remove(getKey(guildId, type));
+        }
+    }
+
+    /**
+     * Get the index of a Leaderboard, it will only be built if there is none.
+     *
+     * @param guildId the ID of the Guild.
+     * @param type    the type of the Leaderboard.
+     * @return the index.
+     */
+    private static RankIndex getIndex(String guildId, LeaderboardType type) {
+        String key = getKey(guildId, type);
+        RankIndex index;
+
+        try {
+            index = cache.get(key, k -> buildIndex(k, guildId, type));
+        } catch (RuntimeException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new IllegalStateException("Could not create the rank index!", exception);
+        }
+
+        if (System.currentTimeMillis() - index.created > Data.getRankIndexRebuild().toMillis() && changed.remove(key)) {
+            rebuild(key, guildId, type);
+        }
+
+        return index;
+    }
+
+    /**
+     * Build an index in the background, the current index is used until it is done.
+     *
+     * @param key     the key of the index.
+     * @param guildId the ID of the Guild.
+     * @param type    the type of the Leaderboard.
+     */
+    private static void rebuild(String key, String guildId, LeaderboardType type) {
+        if (!rebuilding.add(key)) return;
+
+        ThreadUtil.createTask(() -> cache.load(key, k -> buildIndex(k, guildId, type))).whenComplete((index, throwable) -> {
+            rebuilding.remove(key);
+
+            if (throwable != null) {
+                // Try again with the next request.
+                changed.add(key);
+                log.warn("Could not rebuild the rank index {}!", key, throwable);
+            }
+        });
+    }
+
+    private static RankIndex buildIndex(String key, String guildId, LeaderboardType type) {
+        // Changes that happen while the index is built will cause another rebuild.
+        changed.remove(key);
+
+        List<? extends UserLevel> userLevels = switch (type) {
+            case CHAT -> SQLSession.getSqlConnector().getSqlWorker().getEntityList(new ChatUserLevel(),
+                    "FROM ChatUserLevel WHERE guildId=:gid", Map.of("gid", guildId));
+            case VOICE -> SQLSession.getSqlConnector().getSqlWorker().getEntityList(new VoiceUserLevel(),
+                    "FROM VoiceUserLevel WHERE guildId=:gid", Map.of("gid", guildId));
+        };
+
+        RankIndex index = new RankIndex(System.currentTimeMillis());
+
+        for (UserLevel userLevel : userLevels) {
+            index.put(new RankEntry(userLevel.getUserId(), userLevel.getExperience()));
+        }
+
+        return index;
+    }
+
+    private static String getKey(String guildId, LeaderboardType type) {
+        return guildId + ":" + type.name();
+    }
+
+    /**
+     * The ranks of a single Leaderboard.
+     */
+    private static class RankIndex {
+
+        /**
+         * The entries in the order of the Leaderboard.
+         */
+        private final OrderStatisticTree<RankEntry> tree = new OrderStatisticTree<>(ORDER);
+
+        /**
+         * The entries keyed by the User ID, needed to find an entry in the tree.
+         */
+        private final Map<Long, RankEntry> entries = new HashMap<>();
+
+        /**
+         * The time the index has been built at, in milliseconds.
+         */
+        private final long created;
+
+        RankIndex(long created) {
+            this.created = created;
+        }
+
+        synchronized void put(RankEntry entry) {
+            RankEntry previous = entries.put(entry.userId(), entry);
+
+            if (previous != null) {
+                tree.remove(previous);
+            }
+
+            tree.add(entry);
+        }
+
+        synchronized void remove(long userId) {
+            RankEntry previous = entries.remove(userId);
+
+            if (previous != null) {
+                tree.remove(previous);
+            }
+        }
+
+        synchronized int size() {
+            return tree.size();
+        }
+
+        /**
+         * Get the position of a User and of the Users around them.
+         *
+         * @param userId    the ID of the User.
+         * @param neighbors how many Users above and below should be included.
+         * @return the positions ordered by their rank, empty if the User is not part of the index.
+         */
+        synchronized List<RankPosition> getPositions(long userId, int neighbors) {
+            RankEntry entry = entries.get(userId);
+            if (entry == null) return List.of();
+
+            int index = tree.indexOf(entry);
+            List<RankPosition> positions = new ArrayList<>();
+
+            for (int i = Math.max(0, index - neighbors); i <= Math.min(tree.size() - 1, index + neighbors); i++) {
+                positions.add(new RankPosition(i + 1L, tree.get(i)));
+            }
+
+            return positions;
+        }
+    }
+
+    /**
+     * A single entry of an index.
+     *
+     * @param userId     the ID of the User.
+     * @param experience the experience of the User.
+     */
+    private record RankEntry(long userId, long experience) {
+    }
+
+    /**
+     * An entry together with its rank.
+     *
+     * @param rank  the rank, starting at one.
+     * @param entry the entry.
+     */
+    private record RankPosition(long rank, RankEntry entry) {
+    }
+}
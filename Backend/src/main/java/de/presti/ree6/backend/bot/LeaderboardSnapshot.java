@@ -0,0 +1,40 @@
+package de.presti.ree6.backend.bot;
+
+import de.presti.ree6.backend.utils.data.container.user.UserLevelContainer;
+
+import java.util.List;
+
+/**
+ * A ranked and fully resolved Leaderboard of a Guild.
+ *
+ * @param entries the entries, ordered by their rank.
+ * @param etag    the strong entity tag of the entries, already quoted.
+ * @param created the time the snapshot has been created at, in milliseconds.
+ */
+public record LeaderboardSnapshot(List<UserLevelContainer> entries, String etag, long created) {
+
+    /**
+     * Check if an {@code If-None-Match} header matches the snapshot.
+     *
+     * @param ifNoneMatch the value of the header, can be {@code null}.
+     * @return true, if the client already has the current snapshot.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) return false;
+
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+
+            // If-None-Match uses the weak comparison.
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
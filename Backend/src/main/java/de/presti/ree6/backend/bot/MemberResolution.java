@@ -0,0 +1,15 @@
+package de.presti.ree6.backend.bot;
+
+import de.presti.ree6.backend.utils.data.container.user.UserContainer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of resolving multiple members of a Guild at once.
+ *
+ * @param members    the profiles of the members, keyed by the User ID.
+ * @param unresolved the IDs of the Users that are no members of the Guild anymore or could not be retrieved.
+ */
+public record MemberResolution(Map<String, UserContainer> members, List<String> unresolved) {
+}
@@ -0,0 +1,173 @@
+package de.presti.ree6.backend.bot;
+
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.cache.ExpiringCache;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the members of Guilds and their administrator state.
+ * It is filled from the JDA cache and kept current by the {@link de.presti.ree6.backend.bot.listener.PermissionListener}.
+ * Users that are no members are remembered for a short time, so they don't cause a request to Discord on every lookup.
+ */
+public class PermissionIndex {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private PermissionIndex() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The administrator state of every indexed member, keyed by the Guild ID and then by the User ID.
+     */
+    private static final Map<Long, Map<Long, Boolean>> index = new ConcurrentHashMap<>();
+
+    /**
+     * The Users that Discord reported as no members, they are removed when they join the Guild.
+     */
+    private static final ExpiringCache<MemberKey, Boolean> nonMembers =
+            new ExpiringCache<>("non-members", Data.getNonMemberCacheSize(), Data.getNonMemberCacheTtl(), null);
+
+    /**
+     * Check if a User is an administrator of a Guild.
+     * Only if the member is neither indexed nor cached by JDA it will be retrieved from Discord.
+     *
+     * @param guild  the Guild.
+     * @param userId the ID of the User.
+     * @return true, if the User is a member of the Guild and has the administrator permission.
+     */
+    public static boolean isAdministrator(Guild guild, String userId) {
+        return Boolean.TRUE.equals(lookup(guild, Long.parseLong(userId)));
+    }
+
+    /**
+     * Check if a User is a member of a Guild.
+     * Only if the member is neither indexed nor cached by JDA it will be retrieved from Discord.
+     *
+     * @param guild  the Guild.
+     * @param userId the ID of the User.
+     * @return true, if the User is a member of the Guild.
+     */
+    public static boolean isMember(Guild guild, String userId) {
+        return lookup(guild, Long.parseLong(userId)) != null;
+    }
+
+    /**
+     * Get the administrator state of a member, the member is indexed if it was not yet.
+     *
+     * @param guild  the Guild.
+     * @param userId the ID of the User.
+     * @return the administrator state, {@code null} if the User is not a member of the Guild.
+     */
+    private static Boolean lookup(Guild guild, long userId) {
+        Map<Long, Boolean> members = index.computeIfAbsent(guild.getIdLong(), key -> new ConcurrentHashMap<>());
+
+        Boolean administrator = members.get(userId);
+
+        if (administrator != null) {
+            return administrator;
+        }
+
+        MemberKey key = new MemberKey(guild.getIdLong(), userId);
+
+        if (nonMembers.get(key) != null) {
+            return null;
+        }
+
+        Member member = guild.getMemberById(userId);
+
+        if (member == null) {
+            try {
+                member = guild.retrieveMemberById(userId).complete();
+            } catch (ErrorResponseException exception) {
+                // Only a definite answer is remembered, other errors are asked again on the next lookup.
+                if (exception.getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER || exception.getErrorResponse() == ErrorResponse.UNKNOWN_USER) {
+                    nonMembers.put(key, Boolean.TRUE);
+                }
+
+                return null;
+            }
+        }
+
+        administrator = member.hasPermission(Permission.ADMINISTRATOR);
+
+        // An update from the gateway that arrived in the meantime is newer than our lookup.
+        Boolean current = members.putIfAbsent(userId, administrator);
+        return current != null ? current : administrator;
+    }
+
+    /**
+     * Add a member that joined a Guild, it is indexed right away so a lookup that is still running can't mark it as no member.
+     *
+     * @param member the member.
+     */
+    public static void add(Member member) {
+        index.computeIfAbsent(member.getGuild().getIdLong(), key -> new ConcurrentHashMap<>())
+                .put(member.getIdLong(), member.hasPermission(Permission.ADMINISTRATOR));
+        nonMembers.invalidate(new MemberKey(member.getGuild().getIdLong(), member.getIdLong()));
+    }
+
+    /**
+     * Update the administrator state of a member.
+     *
+     * @param member the member.
+     */
+    public static void update(Member member) {
+        Map<Long, Boolean> members = index.get(member.getGuild().getIdLong());
+
+        if (members != null) {
+            members.put(member.getIdLong(), member.hasPermission(Permission.ADMINISTRATOR));
+        }
+    }
+
+    /**
+     * Remove a member from the index.
+     *
+     * @param guildId the ID of the Guild.
+     * @param userId  the ID of the User.
+     */
+    public static void remove(long guildId, long userId) {
+        Map<Long, Boolean> members = index.get(guildId);
+
+        if (members != null) {
+            members.remove(userId);
+        }
+    }
+
+    /**
+     * Remove every member of a Guild from the index, they will be indexed again on their next lookup.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public static void invalidate(long guildId) {
+        index.remove(guildId);
+        nonMembers.invalidateIf((key, value) -> key.guildId() == guildId);
+    }
+
+    /**
+     * Remove every Guild from the index.
+     */
+    public static void invalidateAll() {
+        index.clear();
+        nonMembers.invalidateAll();
+    }
+
+    /**
+     * The key of a User in a Guild.
+     *
+     * @param guildId the ID of the Guild.
+     * @param userId  the ID of the User.
+     */
+    private record MemberKey(long guildId, long userId) {
+    }
+}
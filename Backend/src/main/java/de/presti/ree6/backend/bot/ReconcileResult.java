@@ -0,0 +1,14 @@
+package de.presti.ree6.backend.bot;
+
+/**
+ * Result of a single run of the {@link WebhookReconciler}.
+ *
+ * @param guilds          the amount of Guilds that have been checked.
+ * @param skipped         the amount of Guilds that could not be checked.
+ * @param repaired        the amount of entries whose channel has been corrected.
+ * @param removedEntries  the amount of entries that have been removed since their Webhook does not exist anymore.
+ * @param removedWebhooks the amount of Webhooks that have been deleted since no entry uses them anymore.
+ * @param finished        the time the run finished at, in milliseconds.
+ */
+public record ReconcileResult(int guilds, int skipped, int repaired, int removedEntries, int removedWebhooks, long finished) {
+}
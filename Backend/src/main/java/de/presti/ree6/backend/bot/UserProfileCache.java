@@ -0,0 +1,372 @@
+package de.presti.ree6.backend.bot;
+
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.cache.ExpiringCache;
+import de.presti.ree6.backend.utils.data.container.user.UserContainer;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import net.dv8tion.jda.api.utils.concurrent.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache of the profiles of Discord Users, shared by every endpoint that shows Users.
+ * Profiles are taken from the JDA cache when possible, otherwise retrieved from Discord with a limited amount of
+ * concurrent requests, without blocking a Thread per request. Profiles that are older than the refresh time are still
+ * served, but refreshed in the background.
+ */
+@Slf4j
+public class UserProfileCache {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private UserProfileCache() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * How many members can be requested from the gateway at once.
+     */
+    private static final int MEMBER_CHUNK_SIZE = 100;
+
+    /**
+     * How long a member request of the gateway may take.
+     */
+    private static final Duration MEMBER_TIMEOUT = Duration.ofSeconds(15);
+
+    /**
+     * How long the profiles of a single call may take to be retrieved.
+     */
+    private static final Duration USER_TIMEOUT = Duration.ofSeconds(15);
+
+    /**
+     * Avatar used for Users that do not exist anymore.
+     */
+    private static final String DEFAULT_AVATAR_URL = "https://cdn.discordapp.com/embed/avatars/0.png";
+
+    /**
+     * The cached profiles, keyed by the User ID.
+     */
+    private static final ExpiringCache<Long, Profile> cache =
+            new ExpiringCache<>("user-profiles", Data.getUserCacheSize(), Data.getUserCacheTtl(), null);
+
+    /**
+     * Limits the amount of Users that are retrieved from Discord at the same time, a permit is released once its request is done.
+     */
+    private static final Semaphore permits = new Semaphore(Data.getUserCacheParallelism());
+
+    /**
+     * The requests that wait for a permit.
+     */
+    private static final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The amount of requests that wait for a permit.
+     */
+    private static final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * The requests that have not been answered yet, keyed by the User ID.
+     */
+    private static final Map<Long, CompletableFuture<Profile>> pendingRequests = new ConcurrentHashMap<>();
+
+    /**
+     * The IDs of the Users that are currently refreshed in the background.
+     */
+    private static final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Get the profile of a User.
+     *
+     * @param userId the ID of the User.
+     * @return the profile, a placeholder if the User does not exist.
+     */
+    public static UserContainer getUser(String userId) {
+        return getUsers(Set.of(userId)).get(userId);
+    }
+
+    /**
+     * Get the profiles of multiple Users, the missing ones are retrieved concurrently.
+     * Users that could not be retrieved in time are returned as a placeholder, without failing the whole call.
+     *
+     * @param userIds the IDs of the Users.
+     * @return the profiles keyed by the User ID, a placeholder is used for Users that do not exist or could not be retrieved.
+     */
+    public static Map<String, UserContainer> getUsers(Collection<String> userIds) {
+        Map<String, UserContainer> users = new HashMap<>();
+        Map<String, CompletableFuture<Profile>> requests = new HashMap<>();
+
+        for (String userId : new LinkedHashSet<>(userIds)) {
+            long id = Long.parseLong(userId);
+
+            // Users in the JDA cache are always current and don't cost a request.
+            User user = BotWorker.getShardManager().getUserById(id);
+            if (user != null) {
+                users.put(userId, new UserContainer(user));
+                continue;
+            }
+
+            Profile profile = cache.get(id);
+            if (profile != null) {
+                if (profile.isStale()) {
+                    refresh(id);
+                }
+
+                users.put(userId, profile.user());
+                continue;
+            }
+
+            requests.put(userId, retrieveProfile(id));
+        }
+
+        if (requests.isEmpty()) {
+            return users;
+        }
+
+        // A single deadline for every request, so the wait does not grow with the amount of Users.
+        try {
+            CompletableFuture.allOf(requests.values().toArray(CompletableFuture[]::new)).get(USER_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException ignore) {
+            // The failed requests are handled one by one below.
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        requests.forEach((userId, request) -> {
+            if (request.isDone() && !request.isCompletedExceptionally()) {
+                users.put(userId, request.join().user());
+                return;
+            }
+
+            // Requests that are still running fill the cache once they are done.
+            if (request.isDone()) {
+                log.warn("Could not retrieve the User {}!", userId, request.exceptionNow());
+            } else {
+                log.warn("Could not retrieve the User {} in time!", userId);
+            }
+
+            users.put(userId, createPlaceholder(userId, "Unknown User"));
+        });
+
+        return users;
+    }
+
+    /**
+     * Get the profiles of multiple members of a Guild.
+     * Members are taken from the JDA cache when possible, the missing ones are requested from the gateway in chunks
+     * instead of one REST request per member. The retrieved profiles are written into the cache.
+     *
+     * @param guild   the Guild.
+     * @param userIds the IDs of the Users.
+     * @return the profiles of the members and the IDs of the Users that are no members of the Guild anymore.
+     */
+    public static MemberResolution getMembers(Guild guild, Collection<String> userIds) {
+        Map<String, UserContainer> members = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        for (String userId : new LinkedHashSet<>(userIds)) {
+            Member member = guild.getMemberById(userId);
+
+            if (member != null) {
+                members.put(userId, new UserContainer(member));
+            } else {
+                missing.add(Long.parseLong(userId));
+            }
+        }
+
+        // Every chunk is requested before waiting for any of them.
+        List<Task<List<Member>>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < missing.size(); i += MEMBER_CHUNK_SIZE) {
+            tasks.add(guild.retrieveMembersByIds(missing.subList(i, Math.min(i + MEMBER_CHUNK_SIZE, missing.size()))).setTimeout(MEMBER_TIMEOUT));
+        }
+
+        for (Task<List<Member>> task : tasks) {
+            try {
+                for (Member member : task.get()) {
+                    UserContainer user = new UserContainer(member);
+                    members.put(member.getId(), user);
+                    cache.put(member.getIdLong(), new Profile(user, System.currentTimeMillis()));
+                }
+            } catch (RuntimeException exception) {
+                // The members of the chunk are returned as unresolved, instead of failing the whole request.
+                log.warn("Could not retrieve members of the Guild {}!", guild.getId(), exception);
+            }
+        }
+
+        List<String> unresolved = new LinkedHashSet<>(userIds).stream().filter(userId -> !members.containsKey(userId)).toList();
+        return new MemberResolution(members, unresolved);
+    }
+
+    /**
+     * Remove the profile of a User, it will be retrieved again on the next request.
+     *
+     * @param userId the ID of the User.
+     */
+    public static void invalidate(long userId) {
+        cache.invalidate(userId);
+    }
+
+    /**
+     * Retrieve a profile in the background, the current profile is served until it is done.
+     *
+     * @param userId the ID of the User.
+     */
+    private static void refresh(long userId) {
+        if (!refreshing.add(userId)) return;
+
+        retrieveProfile(userId).whenComplete((profile, throwable) -> {
+            refreshing.remove(userId);
+
+            if (throwable != null) {
+                log.warn("Could not refresh the User {}!", userId, throwable);
+            }
+        });
+    }
+
+    /**
+     * Retrieve a profile from Discord and write it into the cache, without blocking the calling Thread.
+     * Concurrent calls for the same User share a single request, and only a limited amount of requests is sent at the same time.
+     *
+     * @param userId the ID of the User.
+     * @return the pending profile.
+     */
+    private static CompletableFuture<Profile> retrieveProfile(long userId) {
+        CompletableFuture<Profile> created = new CompletableFuture<>();
+        CompletableFuture<Profile> pending = pendingRequests.putIfAbsent(userId, created);
+
+        if (pending != null) {
+            return pending;
+        }
+
+        created.whenComplete((profile, throwable) -> pendingRequests.remove(userId, created));
+
+        // Requests over the limit fail right away, so a flood of lookups can't fill the queue of the Bot.
+        if (queued.incrementAndGet() > Data.getUserCacheQueueSize()) {
+            queued.decrementAndGet();
+            created.completeExceptionally(new IllegalStateException("Too many profiles are being retrieved!"));
+            return created;
+        }
+
+        waiting.add(() -> {
+            CompletableFuture<Profile> request;
+
+            try {
+                request = submitProfile(userId);
+            } catch (RuntimeException exception) {
+                request = CompletableFuture.failedFuture(exception);
+            }
+
+            request.whenComplete((profile, throwable) -> {
+                permits.release();
+                drain();
+
+                if (throwable != null) {
+                    created.completeExceptionally(throwable);
+                } else {
+                    created.complete(profile);
+                }
+            });
+        });
+
+        drain();
+        return created;
+    }
+
+    /**
+     * Send the waiting requests as long as there are permits left.
+     */
+    private static void drain() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Runnable request = waiting.poll();
+
+            if (request == null) {
+                permits.release();
+                return;
+            }
+
+            queued.decrementAndGet();
+            request.run();
+        }
+    }
+
+    /**
+     * Send the request of a profile to Discord and write the result into the cache.
+     *
+     * @param userId the ID of the User.
+     * @return the pending profile.
+     */
+    private static CompletableFuture<Profile> submitProfile(long userId) {
+        return BotWorker.getShardManager().retrieveUserById(userId).submit()
+                .thenApply(user -> new Profile(new UserContainer(user), System.currentTimeMillis()))
+                .exceptionally(throwable -> {
+                    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+
+                    if (cause instanceof ErrorResponseException exception && exception.getErrorResponse() == ErrorResponse.UNKNOWN_USER) {
+                        // Cache deleted Users as well, otherwise every request would ask Discord again.
+                        return new Profile(createPlaceholder(String.valueOf(userId), "Deleted User"), System.currentTimeMillis());
+                    }
+
+                    throw new CompletionException(cause);
+                })
+                .whenComplete((profile, throwable) -> {
+                    if (profile != null) {
+                        cache.put(userId, profile);
+                    }
+                });
+    }
+
+    /**
+     * Create the profile of a User that could not be retrieved.
+     *
+     * @param userId the ID of the User.
+     * @param name   the name shown instead of the name of the User.
+     * @return the profile.
+     */
+    private static UserContainer createPlaceholder(String userId, String name) {
+        return new UserContainer(userId, name, "0000", DEFAULT_AVATAR_URL);
+    }
+
+    /**
+     * A cached profile.
+     *
+     * @param user   the profile.
+     * @param loaded the time the profile has been retrieved at, in milliseconds.
+     */
+    private record Profile(UserContainer user, long loaded) {
+
+        /**
+         * Check if the profile should be refreshed.
+         *
+         * @return true, if it is older than the refresh time.
+         */
+        boolean isStale() {
+            return System.currentTimeMillis() - loaded > Data.getUserCacheRefresh().toMillis();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package de.presti.ree6.backend.bot;
+
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.cache.ExpiringCache;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Webhook;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the Webhooks of every Guild, indexed by their ID.
+ * It is invalidated by the {@link de.presti.ree6.backend.bot.listener.WebhookListener} and whenever the Backend changes a Webhook itself.
+ */
+public class WebhookCache {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private WebhookCache() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The Webhook snapshots, keyed by the Guild ID.
+     */
+    private static final ExpiringCache<Long, Map<String, Webhook>> cache =
+            new ExpiringCache<>("webhooks", Data.getWebhookCacheSize(), Data.getWebhookCacheTtl(), null);
+
+    /**
+     * Get the Webhooks of a Guild, they will only be retrieved from Discord if there is no valid snapshot.
+     *
+     * @param guild the Guild.
+     * @return an unmodifiable Map of the Webhooks keyed by their ID, empty if the Guild is {@code null}.
+     */
+    public static Map<String, Webhook> getWebhooks(Guild guild) {
+        if (guild == null) {
+            return Collections.emptyMap();
+        }
+
+        try {
+            return cache.get(guild.getIdLong(), id -> retrieveWebhooks(guild));
+        } catch (RuntimeException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new IllegalStateException("Could not retrieve the Webhooks!", exception);
+        }
+    }
+
+    /**
+     * Retrieve the Webhooks of a Guild from Discord, replacing the current snapshot.
+     *
+     * @param guild the Guild.
+     * @return an unmodifiable Map of the Webhooks keyed by their ID.
+     */
+    public static Map<String, Webhook> refresh(Guild guild) {
+        try {
+            return cache.load(guild.getIdLong(), id -> retrieveWebhooks(guild));
+        } catch (RuntimeException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new IllegalStateException("Could not retrieve the Webhooks!", exception);
+        }
+    }
+
+    /**
+     * Get a Webhook of a Guild from the current snapshot, without retrieving it from Discord.
+     *
+     * @param guildId   the ID of the Guild.
+     * @param webhookId the ID of the Webhook.
+     * @return the Webhook or {@code null} if there is no snapshot or it does not contain the Webhook.
+     */
+    public static Webhook getCachedWebhook(long guildId, String webhookId) {
+        if (webhookId == null) return null;
+
+        Map<String, Webhook> webhooks = cache.get(guildId);
+        return webhooks != null ? webhooks.get(webhookId) : null;
+    }
+
+    /**
+     * Get a Webhook of a Guild by its ID.
+     *
+     * @param guild     the Guild.
+     * @param webhookId the ID of the Webhook.
+     * @return the Webhook or {@code null} if it does not exist.
+     */
+    public static Webhook getWebhook(Guild guild, String webhookId) {
+        if (webhookId == null) return null;
+
+        return getWebhooks(guild).get(webhookId);
+    }
+
+    /**
+     * Retrieve the Webhooks of a Guild from Discord.
+     *
+     * @param guild the Guild.
+     * @return an unmodifiable Map of the Webhooks keyed by their ID.
+     */
+    private static Map<String, Webhook> retrieveWebhooks(Guild guild) {
+        return guild.retrieveWebhooks().complete().stream()
+                .collect(Collectors.toUnmodifiableMap(Webhook::getId, webhook -> webhook, (first, second) -> first));
+    }
+
+    /**
+     * Remove the snapshot of a Guild, the next request will retrieve the Webhooks from Discord again.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public static void invalidate(long guildId) {
+        cache.invalidate(guildId);
+    }
+}
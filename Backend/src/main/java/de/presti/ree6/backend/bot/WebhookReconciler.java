@@ -0,0 +1,348 @@
+package de.presti.ree6.backend.bot;
+
+import de.presti.ree6.backend.utils.ThreadUtil;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.container.NotifierPlatform;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.webhook.Webhook;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background worker that compares the Webhook entries of the database with the Webhooks that exist on Discord.
+ * Entries whose Webhook is gone are removed, entries without the correct channel are repaired and Webhooks that were
+ * created by the Backend but are not used by any entry anymore are deleted.
+ * This keeps the dashboard requests free of any writes and Discord calls.
+ * In dry run mode entries and Webhooks are never removed, the removals are only logged.
+ */
+@Slf4j
+public class WebhookReconciler {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private WebhookReconciler() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * The names of the Webhooks created by the Backend, only those are deleted when they are not used anymore.
+     */
+    private static final Set<String> WEBHOOK_NAMES = Set.of("Ree6-Log", "Ree6-Welcome", "Ree6-Notifier");
+
+    /**
+     * The name prefixes of the Webhooks created by the Backend for a single Notifier.
+     */
+    private static final List<String> WEBHOOK_NAME_PREFIXES = List.of("Ree6-RedditNotifier-", "Ree6-TwitchNotifier-",
+            "Ree6-YoutubeNotifier-", "Ree6-TwitterNotifier-", "Ree6-InstagramNotifier-");
+
+    /**
+     * How old an unused Webhook has to be before it is deleted, so Webhooks whose entry is still being written are kept.
+     */
+    private static final Duration WEBHOOK_GRACE_PERIOD = Duration.ofMinutes(10);
+
+    /**
+     * The time an entry has first been seen without its Webhook, keyed by the Webhook ID of the entry.
+     * Entries are only removed once their Webhook has been missing for longer than the grace period.
+     */
+    private static final Map<String, Long> missingSince = new ConcurrentHashMap<>();
+
+    /**
+     * The ID of the last Guild that has been checked, the next run continues after it.
+     */
+    private static long lastGuildId;
+
+    /**
+     * The result of the last run.
+     */
+    @Getter
+    private static volatile ReconcileResult lastResult;
+
+    /**
+     * Start the worker, if it is enabled.
+     */
+    public static void start() {
+        if (!Data.isReconcilerEnabled()) {
+            log.info("Webhook reconciler is disabled.");
+            return;
+        }
+
+        if (Data.isReconcilerDryRun()) {
+            log.info("Webhook reconciler is running in dry run mode, removals are only logged.");
+        }
+
+        ThreadUtil.createNewThread(x -> {
+            try {
+                run();
+            } catch (Exception exception) {
+                log.error("Webhook reconciler run failed!", exception);
+            }
+        }, throwable -> log.error("Webhook reconciler stopped!", throwable), Data.getReconcilerInterval(), true, false);
+    }
+
+    /**
+     * Check the next batch of Guilds.
+     *
+     * @return the result of the run.
+     */
+    public static synchronized ReconcileResult run() {
+        List<Guild> guilds = BotWorker.getShardManager().getGuildCache().stream()
+                .filter(guild -> guild.getIdLong() > lastGuildId)
+                .sorted(Comparator.comparingLong(Guild::getIdLong))
+                .limit(Data.getReconcilerBatchSize())
+                .toList();
+
+        // Start from the beginning again once every Guild has been checked.
+        lastGuildId = guilds.size() < Data.getReconcilerBatchSize() ? 0 : guilds.get(guilds.size() - 1).getIdLong();
+
+        Counter counter = new Counter();
+
+        for (Guild guild : guilds) {
+            if (!guild.getSelfMember().hasPermission(Permission.MANAGE_WEBHOOKS)) {
+                // Without the permission the Webhooks can't be checked, so nothing may be removed.
+                counter.skipped++;
+                continue;
+            }
+
+            try {
+                reconcile(guild, counter);
+                counter.guilds++;
+            } catch (Exception exception) {
+                log.warn("Could not reconcile the Webhooks of {}!", guild.getId(), exception);
+                counter.skipped++;
+            }
+
+            try {
+                // Spread the requests, so the Bot keeps enough of its rate limit for everything else.
+                Thread.sleep(Data.getReconcilerDelay().toMillis());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        lastResult = new ReconcileResult(counter.guilds, counter.skipped, counter.repaired, counter.removedEntries, counter.removedWebhooks, System.currentTimeMillis());
+
+        if (counter.repaired > 0 || counter.removedEntries > 0 || counter.removedWebhooks > 0) {
+            log.info("Webhook reconciler checked {} Guilds{}: {} entries repaired, {} entries removed, {} Webhooks deleted.",
+                    counter.guilds, Data.isReconcilerDryRun() ? " (dry run)" : "", counter.repaired, counter.removedEntries, counter.removedWebhooks);
+        }
+
+        return lastResult;
+    }
+
+    /**
+     * Compare the entries of a Guild with its Webhooks.
+     *
+     * @param guild   the Guild.
+     * @param counter the counter of the current run.
+     */
+    private static void reconcile(Guild guild, Counter counter) {
+        String guildId = guild.getId();
+        boolean dryRun = Data.isReconcilerDryRun();
+
+        // The entries are read before the snapshot, so an entry written in between always finds its Webhook.
+        List<Entry> entries = new ArrayList<>();
+        entries.add(new Entry("Log", SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(guildId)));
+        entries.add(new Entry("Welcome", SQLSession.getSqlConnector().getSqlWorker().getWelcomeWebhook(guildId)));
+
+        for (NotifierPlatform platform : NotifierPlatform.values()) {
+            List<? extends Webhook> platformEntries = switch (platform) {
+                case REDDIT -> SQLSession.getSqlConnector().getSqlWorker().getAllRedditWebhooks(guildId);
+                case TWITCH -> SQLSession.getSqlConnector().getSqlWorker().getAllTwitchWebhooks(guildId);
+                case TWITTER -> SQLSession.getSqlConnector().getSqlWorker().getAllTwitterWebhooks(guildId);
+                case YOUTUBE -> SQLSession.getSqlConnector().getSqlWorker().getAllYouTubeWebhooks(guildId);
+                case INSTAGRAM -> SQLSession.getSqlConnector().getSqlWorker().getAllInstagramWebhooks(guildId);
+            };
+
+            platformEntries.forEach(entry -> entries.add(new Entry(platform.name(), entry)));
+        }
+
+        Map<String, net.dv8tion.jda.api.entities.Webhook> webhooks = WebhookCache.refresh(guild);
+        Set<String> usedWebhooks = new HashSet<>();
+
+        for (Entry entry : entries) {
+            reconcileEntry(guild, entry.type(), entry.webhook(), webhooks, usedWebhooks, counter, dryRun);
+        }
+
+        OffsetDateTime deleteBefore = OffsetDateTime.now().minus(WEBHOOK_GRACE_PERIOD);
+        boolean deleted = false;
+
+        for (net.dv8tion.jda.api.entities.Webhook webhook : webhooks.values()) {
+            // Webhooks without a token have not been created by us.
+            if (webhook.getToken() == null || usedWebhooks.contains(webhook.getId()) || !isBackendWebhook(webhook.getName()) ||
+                    webhook.getTimeCreated().isAfter(deleteBefore)) {
+                continue;
+            }
+
+            counter.removedWebhooks++;
+
+            if (dryRun) {
+                log.info("Would delete unused Webhook {} ({}) of {}.", webhook.getName(), webhook.getId(), guildId);
+                continue;
+            }
+
+            webhook.delete().complete();
+            deleted = true;
+            log.info("Deleted unused Webhook {} ({}) of {}.", webhook.getName(), webhook.getId(), guildId);
+        }
+
+        if (deleted) {
+            WebhookCache.invalidate(guild.getIdLong());
+        }
+    }
+
+    /**
+     * Compare a single entry with the Webhooks of its Guild.
+     *
+     * @param guild        the Guild.
+     * @param type         the type of the entry, used for logging.
+     * @param entry        the entry, can be {@code null}.
+     * @param webhooks     the Webhooks of the Guild.
+     * @param usedWebhooks the IDs of the Webhooks used by an entry.
+     * @param counter      the counter of the current run.
+     * @param dryRun       if the removal should only be logged.
+     */
+    private static void reconcileEntry(Guild guild, String type, Webhook entry, Map<String, net.dv8tion.jda.api.entities.Webhook> webhooks,
+                                       Set<String> usedWebhooks, Counter counter, boolean dryRun) {
+        if (entry == null) return;
+
+        net.dv8tion.jda.api.entities.Webhook webhook = entry.getWebhookId() != null ? webhooks.get(entry.getWebhookId()) : null;
+
+        if (!matches(entry, webhook)) {
+            // The snapshot could be outdated, so the Webhook is checked on its own before anything is removed.
+            webhook = retrieveWebhook(guild, entry.getWebhookId());
+
+            if (!matches(entry, webhook)) {
+                removeEntry(guild, type, entry, counter, dryRun);
+                return;
+            }
+        }
+
+        missingSince.remove(entry.getWebhookId());
+        usedWebhooks.add(webhook.getId());
+
+        // Repairs only fill in what Discord reports, so they are applied even in dry run mode.
+        if (entry.getChannelId() != webhook.getChannel().getIdLong()) {
+            counter.repaired++;
+            entry.setChannelId(webhook.getChannel().getIdLong());
+            SQLSession.getSqlConnector().getSqlWorker().updateEntity(entry);
+            log.info("Repaired the channel of the {} entry of {}.", type, guild.getId());
+        }
+    }
+
+    /**
+     * Remove an entry whose Webhook does not exist, once it has been missing for longer than the grace period.
+     *
+     * @param guild   the Guild.
+     * @param type    the type of the entry, used for logging.
+     * @param entry   the entry.
+     * @param counter the counter of the current run.
+     * @param dryRun  if the removal should only be logged.
+     */
+    private static void removeEntry(Guild guild, String type, Webhook entry, Counter counter, boolean dryRun) {
+        if (entry.getWebhookId() != null) {
+            long now = System.currentTimeMillis();
+            long since = missingSince.computeIfAbsent(entry.getWebhookId(), id -> now);
+
+            if (now - since < WEBHOOK_GRACE_PERIOD.toMillis()) {
+                return;
+            }
+        }
+
+        counter.removedEntries++;
+
+        if (dryRun) {
+            log.info("Would remove {} entry of {}, its Webhook {} does not exist anymore.", type, guild.getId(), entry.getWebhookId());
+            return;
+        }
+
+        SQLSession.getSqlConnector().getSqlWorker().deleteEntity(entry);
+
+        if (entry.getWebhookId() != null) {
+            missingSince.remove(entry.getWebhookId());
+        }
+
+        log.info("Removed {} entry of {}, its Webhook {} does not exist anymore.", type, guild.getId(), entry.getWebhookId());
+    }
+
+    /**
+     * Check if an entry belongs to a Webhook.
+     *
+     * @param entry   the entry.
+     * @param webhook the Webhook, can be {@code null}.
+     * @return true, if the Webhook exists and has the token of the entry.
+     */
+    private static boolean matches(Webhook entry, net.dv8tion.jda.api.entities.Webhook webhook) {
+        return webhook != null && webhook.getToken() != null && webhook.getToken().equalsIgnoreCase(entry.getToken());
+    }
+
+    /**
+     * Retrieve a single Webhook from Discord.
+     *
+     * @param guild     the Guild of the Webhook.
+     * @param webhookId the ID of the Webhook.
+     * @return the Webhook or {@code null} if Discord does not know it.
+     * @throws ErrorResponseException if Discord could not be asked, in that case nothing may be removed.
+     */
+    private static net.dv8tion.jda.api.entities.Webhook retrieveWebhook(Guild guild, String webhookId) {
+        if (webhookId == null) return null;
+
+        try {
+            net.dv8tion.jda.api.entities.Webhook webhook = guild.getJDA().retrieveWebhookById(webhookId).complete();
+            return webhook.getGuild().getIdLong() == guild.getIdLong() ? webhook : null;
+        } catch (ErrorResponseException exception) {
+            if (exception.getErrorResponse() == ErrorResponse.UNKNOWN_WEBHOOK) {
+                return null;
+            }
+
+            throw exception;
+        }
+    }
+
+    /**
+     * Check if a Webhook has been created by the Backend.
+     *
+     * @param name the name of the Webhook.
+     * @return true, if the name is one the Backend uses.
+     */
+    private static boolean isBackendWebhook(String name) {
+        return name != null && (WEBHOOK_NAMES.contains(name) || WEBHOOK_NAME_PREFIXES.stream().anyMatch(name::startsWith));
+    }
+
+    /**
+     * A Webhook entry of the database.
+     *
+     * @param type    the type of the entry, used for logging.
+     * @param webhook the entry, can be {@code null}.
+     */
+    private record Entry(String type, Webhook webhook) {
+    }
+
+    /**
+     * The counts of a single run.
+     */
+    private static class Counter {
+        int guilds;
+        int skipped;
+        int repaired;
+        int removedEntries;
+        int removedWebhooks;
+    }
+}
@@ -0,0 +1,37 @@
+package de.presti.ree6.backend.bot.listener;
+
+import de.presti.ree6.backend.bot.LeaderboardCache;
+import de.presti.ree6.backend.bot.LeaderboardRankIndex;
+import de.presti.ree6.backend.utils.data.container.LeaderboardType;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Listener used to notice activity that could change the Leaderboards in the {@link LeaderboardCache} and the {@link LeaderboardRankIndex}.
+ */
+public class LeaderboardListener extends ListenerAdapter {
+
+    @Override
+    public void onMessageReceived(@Nonnull MessageReceivedEvent event) {
+        if (event.isFromGuild() && !event.getAuthor().isBot()) {
+            LeaderboardCache.markChanged(event.getGuild().getId(), LeaderboardType.CHAT);
+            LeaderboardRankIndex.markChanged(event.getGuild().getId(), LeaderboardType.CHAT);
+        }
+    }
+
+    @Override
+    public void onGuildVoiceUpdate(@Nonnull GuildVoiceUpdateEvent event) {
+        LeaderboardCache.markChanged(event.getGuild().getId(), LeaderboardType.VOICE);
+        LeaderboardRankIndex.markChanged(event.getGuild().getId(), LeaderboardType.VOICE);
+    }
+
+    @Override
+    public void onGuildLeave(@Nonnull GuildLeaveEvent event) {
+        LeaderboardCache.invalidate(event.getGuild().getId());
+        LeaderboardRankIndex.invalidate(event.getGuild().getId());
+    }
+}
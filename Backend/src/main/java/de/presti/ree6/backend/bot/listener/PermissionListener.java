@@ -0,0 +1,67 @@
+package de.presti.ree6.backend.bot.listener;
+
+import de.presti.ree6.backend.bot.PermissionIndex;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
+import net.dv8tion.jda.api.events.guild.update.GuildUpdateOwnerEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.RoleUpdatePermissionsEvent;
+import net.dv8tion.jda.api.events.session.SessionRecreateEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Listener used to keep the {@link PermissionIndex} current.
+ */
+public class PermissionListener extends ListenerAdapter {
+
+    @Override
+    public void onGuildMemberRoleAdd(@Nonnull GuildMemberRoleAddEvent event) {
+        PermissionIndex.update(event.getMember());
+    }
+
+    @Override
+    public void onGuildMemberRoleRemove(@Nonnull GuildMemberRoleRemoveEvent event) {
+        PermissionIndex.update(event.getMember());
+    }
+
+    @Override
+    public void onGuildMemberJoin(@Nonnull GuildMemberJoinEvent event) {
+        PermissionIndex.add(event.getMember());
+    }
+
+    @Override
+    public void onGuildMemberRemove(@Nonnull GuildMemberRemoveEvent event) {
+        PermissionIndex.remove(event.getGuild().getIdLong(), event.getUser().getIdLong());
+    }
+
+    @Override
+    public void onRoleUpdatePermissions(@Nonnull RoleUpdatePermissionsEvent event) {
+        PermissionIndex.invalidate(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onRoleDelete(@Nonnull RoleDeleteEvent event) {
+        PermissionIndex.invalidate(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildUpdateOwner(@Nonnull GuildUpdateOwnerEvent event) {
+        PermissionIndex.invalidate(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildLeave(@Nonnull GuildLeaveEvent event) {
+        PermissionIndex.invalidate(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onSessionRecreate(@Nonnull SessionRecreateEvent event) {
+        // Events could have been missed while the connection was gone.
+        PermissionIndex.invalidateAll();
+    }
+}
@@ -0,0 +1,38 @@
+package de.presti.ree6.backend.bot.listener;
+
+import de.presti.ree6.backend.bot.WebhookCache;
+import net.dv8tion.jda.api.audit.ActionType;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.guild.GuildAuditLogEntryCreateEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Listener used to keep the {@link WebhookCache} current.
+ */
+public class WebhookListener extends ListenerAdapter {
+
+    @Override
+    public void onGuildAuditLogEntryCreate(@Nonnull GuildAuditLogEntryCreateEvent event) {
+        ActionType type = event.getEntry().getType();
+
+        if (type == ActionType.WEBHOOK_CREATE || type == ActionType.WEBHOOK_UPDATE || type == ActionType.WEBHOOK_REMOVE) {
+            WebhookCache.invalidate(event.getGuild().getIdLong());
+        }
+    }
+
+    @Override
+    public void onChannelDelete(@Nonnull ChannelDeleteEvent event) {
+        // Webhooks are deleted together with their channel.
+        if (event.isFromGuild()) {
+            WebhookCache.invalidate(event.getGuild().getIdLong());
+        }
+    }
+
+    @Override
+    public void onGuildLeave(@Nonnull GuildLeaveEvent event) {
+        WebhookCache.invalidate(event.getGuild().getIdLong());
+    }
+}
@@ -1,8 +1,12 @@
 package de.presti.ree6.backend.controller;
 
 
-import de.presti.ree6.backend.bot.BotWorker;
+import de.presti.ree6.backend.bot.LeaderboardSnapshot;
 import de.presti.ree6.backend.service.GuildService;
+import de.presti.ree6.backend.service.LeaderboardService;
+import de.presti.ree6.backend.service.ModerationService;
+import de.presti.ree6.backend.service.NotifierService;
+import de.presti.ree6.backend.service.RecordingService;
 import de.presti.ree6.backend.service.SessionService;
 import de.presti.ree6.backend.utils.data.Data;
 import de.presti.ree6.backend.utils.data.container.*;
@@ -11,21 +15,22 @@ import de.presti.ree6.backend.utils.data.container.guild.GuildContainer;
 import de.presti.ree6.backend.utils.data.container.guild.GuildStatsContainer;
 import de.presti.ree6.backend.utils.data.container.role.RoleContainer;
 import de.presti.ree6.backend.utils.data.container.role.RoleLevelContainer;
-import de.presti.ree6.backend.utils.data.container.user.UserContainer;
-import de.presti.ree6.backend.utils.data.container.user.UserLevelContainer;
+import de.presti.ree6.backend.utils.data.recording.RecordingDownload;
 import de.presti.ree6.sql.SQLSession;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/guilds")
@@ -34,18 +39,32 @@ public class GuildController {
 
     private final GuildService guildService;
 
+    private final NotifierService notifierService;
+
+    private final LeaderboardService leaderboardService;
+
+    private final RecordingService recordingService;
+
+    private final ModerationService moderationService;
+
     @Autowired
-    public GuildController(SessionService sessionService, GuildService guildService) {
+    public GuildController(SessionService sessionService, GuildService guildService, NotifierService notifierService, LeaderboardService leaderboardService,
+                           RecordingService recordingService, ModerationService moderationService) {
         this.sessionService = sessionService;
         this.guildService = guildService;
+        this.notifierService = notifierService;
+        this.leaderboardService = leaderboardService;
+        this.recordingService = recordingService;
+        this.moderationService = moderationService;
     }
 
     //region Guild Retrieve
 
     @GetMapping(value = "/", produces = MediaType.APPLICATION_JSON_VALUE)
-    public GenericObjectResponse<List<GuildContainer>> retrieveGuilds(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier) {
+    public GenericObjectResponse<List<GuildContainer>> retrieveGuilds(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier,
+                                                                      @RequestParam(name = "refresh", defaultValue = "false") boolean refresh) {
         try {
-            return new GenericObjectResponse<>(true, sessionService.retrieveGuilds(sessionIdentifier), "Guilds retrieved!");
+            return new GenericObjectResponse<>(true, sessionService.retrieveGuilds(sessionIdentifier, false, refresh), "Guilds retrieved!");
         } catch (Exception e) {
             return new GenericObjectResponse<>(false, null, e.getMessage());
         }
@@ -60,6 +79,17 @@ public class GuildController {
         }
     }
 
+    @GetMapping(value = "/{guildId}/bundle", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GenericObjectResponse<Map<String, GenericObjectResponse<Object>>> retrieveBundle(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier,
+                                                                                            @PathVariable(name = "guildId") String guildId,
+                                                                                            @RequestParam(name = "sections") List<String> sections) {
+        try {
+            return new GenericObjectResponse<>(true, guildService.getBundle(sessionIdentifier, guildId, sections), "Bundle retrieved!");
+        } catch (Exception e) {
+            return new GenericObjectResponse<>(false, null, e.getMessage());
+        }
+    }
+
     //endregion
 
     //region Guild Channel and Role
@@ -89,9 +119,7 @@ public class GuildController {
     @GetMapping(value = "/{guildId}/blacklist", produces = MediaType.APPLICATION_JSON_VALUE)
     public GenericObjectResponse<List<String>> retrieveGuildBlacklist(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @PathVariable(name = "guildId") String guildId) {
         try {
-            GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
-            List<String> blacklist = SQLSession.getSqlConnector().getSqlWorker().getChatProtectorWords(guildId);
-            return new GenericObjectResponse<>(true, blacklist, "Blacklist retrieved!");
+            return new GenericObjectResponse<>(true, guildService.getBlacklist(sessionService.retrieveGuild(sessionIdentifier, guildId)), "Blacklist retrieved!");
         } catch (Exception e) {
             return new GenericObjectResponse<>(false, Collections.emptyList(), e.getMessage());
         }
@@ -132,9 +160,7 @@ public class GuildController {
     @GetMapping(value = "/{guildId}/autorole", produces = MediaType.APPLICATION_JSON_VALUE)
     public GenericObjectResponse<List<RoleContainer>> retrieveGuildAutoRole(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @PathVariable(name = "guildId") String guildId) {
         try {
-            GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, false, true);
-            List<RoleContainer> autoRoles = SQLSession.getSqlConnector().getSqlWorker().getAutoRoles(guildId).stream().map(c -> guildContainer.getRoleById(c.getRoleId())).filter(Objects::nonNull).toList();
-            return new GenericObjectResponse<>(true, autoRoles, "AutoRole retrieved!");
+            return new GenericObjectResponse<>(true, guildService.getAutoRoles(sessionService.retrieveGuild(sessionIdentifier, guildId, false, true)), "AutoRole retrieved!");
         } catch (Exception e) {
             return new GenericObjectResponse<>(false, Collections.emptyList(), e.getMessage());
         }
@@ -175,36 +201,64 @@ public class GuildController {
     //region Guild Leaderboard
 
     @GetMapping(value = "/{guildId}/leaderboard/voice", produces = MediaType.APPLICATION_JSON_VALUE)
-    public GenericObjectResponse<LeaderboardContainer> retrieveLeaderboardVoice(@PathVariable(name = "guildId") String guildId) {
+    public ResponseEntity<GenericObjectResponse<LeaderboardContainer>> retrieveLeaderboardVoice(@PathVariable(name = "guildId") String guildId,
+                                                                                               @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return retrieveLeaderboard(guildId, LeaderboardType.VOICE, ifNoneMatch);
+    }
+
+    @GetMapping(value = "/{guildId}/leaderboard/chat", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<GenericObjectResponse<LeaderboardContainer>> retrieveLeaderboardChat(@PathVariable(name = "guildId") String guildId,
+                                                                                              @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return retrieveLeaderboard(guildId, LeaderboardType.CHAT, ifNoneMatch);
+    }
+
+    private ResponseEntity<GenericObjectResponse<LeaderboardContainer>> retrieveLeaderboard(String guildId, LeaderboardType type, String ifNoneMatch) {
         try {
-            // Call this to check if guild exists. If not exception is thrown.
-            GuildContainer guildContainer = sessionService.retrieveGuild(guildId);
+            LeaderboardSnapshot snapshot = leaderboardService.getSnapshot(guildId, type);
+
+            // The client already has the current Leaderboard.
+            if (snapshot.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).cacheControl(CacheControl.noCache()).build();
+            }
 
             LeaderboardContainer leaderboardContainer = new LeaderboardContainer();
 
-            leaderboardContainer.setVoiceLeaderboard(SQLSession.getSqlConnector().getSqlWorker().getTopVoice(guildId, Data.getLeaderboardTop()).stream().map(c -> new UserLevelContainer(c, new UserContainer(BotWorker.getShardManager().retrieveUserById(c.getUserId()).complete()))).toList());
+            if (type == LeaderboardType.VOICE) {
+                leaderboardContainer.setVoiceLeaderboard(snapshot.entries());
+            } else {
+                leaderboardContainer.setChatLeaderboard(snapshot.entries());
+            }
 
-            leaderboardContainer.setGuildId(guildContainer.getId());
+            leaderboardContainer.setGuildId(guildId);
 
-            return new GenericObjectResponse<>(true, leaderboardContainer, "Leaderboard retrieved!");
+            return ResponseEntity.ok().eTag(snapshot.etag()).cacheControl(CacheControl.noCache())
+                    .body(new GenericObjectResponse<>(true, leaderboardContainer, "Leaderboard retrieved!"));
         } catch (Exception e) {
-            return new GenericObjectResponse<>(false, null, e.getMessage());
+            return ResponseEntity.ok(new GenericObjectResponse<>(false, null, e.getMessage()));
         }
     }
 
-    @GetMapping(value = "/{guildId}/leaderboard/chat", produces = MediaType.APPLICATION_JSON_VALUE)
-    public GenericObjectResponse<LeaderboardContainer> retrieveLeaderboardChat(@PathVariable(name = "guildId") String guildId) {
+    @GetMapping(value = "/{guildId}/leaderboard/{type}/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GenericObjectResponse<LeaderboardPageContainer> retrieveLeaderboardPage(@PathVariable(name = "guildId") String guildId,
+                                                                                   @PathVariable(name = "type") String type,
+                                                                                   @RequestParam(name = "cursor", required = false) String cursor,
+                                                                                   @RequestParam(name = "size", required = false) Integer size) {
         try {
-            // Call this to check if guild exists. If not exception is thrown.
-            GuildContainer guildContainer = sessionService.retrieveGuild(guildId);
-
-            LeaderboardContainer leaderboardContainer = new LeaderboardContainer();
-
-            leaderboardContainer.setChatLeaderboard(SQLSession.getSqlConnector().getSqlWorker().getTopChat(guildId, Data.getLeaderboardTop()).stream().map(c -> new UserLevelContainer(c, new UserContainer(BotWorker.getShardManager().retrieveUserById(c.getUserId()).complete()))).toList());
-
-            leaderboardContainer.setGuildId(guildContainer.getId());
+            return new GenericObjectResponse<>(true, leaderboardService.getLeaderboardPage(guildId, type, cursor,
+                    size != null ? size : Data.getLeaderboardPageSize()), "Leaderboard retrieved!");
+        } catch (Exception e) {
+            return new GenericObjectResponse<>(false, null, e.getMessage());
+        }
+    }
 
-            return new GenericObjectResponse<>(true, leaderboardContainer, "Leaderboard retrieved!");
+    @GetMapping(value = "/{guildId}/leaderboard/{type}/rank/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GenericObjectResponse<LeaderboardRankContainer> retrieveLeaderboardRank(@PathVariable(name = "guildId") String guildId,
+                                                                                   @PathVariable(name = "type") String type,
+                                                                                   @PathVariable(name = "userId") String userId,
+                                                                                   @RequestParam(name = "neighbors", required = false) Integer neighbors) {
+        try {
+            return new GenericObjectResponse<>(true, leaderboardService.getRank(guildId, type, userId,
+                    neighbors != null ? neighbors : Data.getLeaderboardRankNeighbors()), "Rank retrieved!");
         } catch (Exception e) {
             return new GenericObjectResponse<>(false, null, e.getMessage());
         }
@@ -298,25 +352,75 @@ public class GuildController {
     @GetMapping(value = "/recording", produces = MediaType.APPLICATION_JSON_VALUE)
     public GenericObjectResponse<RecordContainer> retrieveRecording(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @RequestParam(name = "recordId") String recordId) {
         try {
-            return new GenericObjectResponse<>(true, guildService.getRecordingContainer(sessionIdentifier, recordId), "Recording retrieved!");
+            return new GenericObjectResponse<>(true, recordingService.getRecordingContainer(sessionIdentifier, recordId), "Recording retrieved!");
         } catch (Exception e) {
             return new GenericObjectResponse<>(false, null, e.getMessage());
         }
     }
 
-    @GetMapping(value = "/recording/download", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Resource> downloadRecording(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @RequestParam(name = "recordId") String recordId) {
-        try {
+    @GetMapping(value = "/recording/download")
+    public ResponseEntity<StreamingResponseBody> downloadRecording(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @RequestParam(name = "recordId") String recordId,
+                                                                   @RequestParam(name = "format", required = false) String format,
+                                                                   @RequestHeader(name = HttpHeaders.RANGE, required = false) String range,
+                                                                   @RequestHeader(name = HttpHeaders.IF_RANGE, required = false) String ifRange) {
+        try {
+            RecordingDownload download = recordingService.getDownload(sessionIdentifier, recordId, format);
+            long length = download.length();
+
+            // The audio of a Recording never changes, so its identifier is a valid entity tag.
+            String etag = "\"" + recordId + "-" + download.format().getExtension() + "\"";
+            String contentDisposition = ContentDisposition.attachment()
+                    .filename("recording." + download.format().getExtension())
+                    .build().toString();
+
+            long start = 0;
+            long end = length - 1;
+            boolean partial = false;
+
+            if (range != null && (ifRange == null || ifRange.equals(etag))) {
+                try {
+                    List<HttpRange> ranges = HttpRange.parseRanges(range);
+
+                    // Multiple ranges are not supported, in which case the whole file is sent.
+                    if (ranges.size() == 1) {
+                        start = ranges.get(0).getRangeStart(length);
+                        end = ranges.get(0).getRangeEnd(length);
+                        partial = true;
+                    }
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                            .build();
+                }
+            }
 
-            ByteArrayResource resource = new ByteArrayResource(guildService.getRecordingBytes(sessionIdentifier, recordId));
-            return ResponseEntity.ok()
+            long rangeStart = start;
+            long rangeEnd = end;
+
+            // Only a response that covers the whole file counts as a download, other ranges are used to resume and seek.
+            boolean deleteAfterDownload = start == 0 && end == length - 1 && Data.isRecordingDeleteOnDownload();
+
+            StreamingResponseBody body = outputStream -> {
+                recordingService.streamRecording(download, rangeStart, rangeEnd, outputStream);
+
+                // The body has been written without an error, so the User has received the whole Recording.
+                if (deleteAfterDownload) {
+                    recordingService.deleteRecording(recordId);
+                }
+            };
+
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .contentLength(resource.contentLength())
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            ContentDisposition.attachment()
-                                    .filename("recording.wav")
-                                    .build().toString())
-                    .body(resource);
+                    .contentLength(end - start + 1)
+                    .eTag(etag)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+
+            if (partial) {
+                builder.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+
+            return builder.body(body);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(null);
@@ -393,6 +497,76 @@ public class GuildController {
 
     //region Notifier
 
+    @GetMapping(value = "/{guildId}/notifiers", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GenericObjectResponse<NotifierPageContainer> retrieveNotifiers(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier,
+                                                                          @PathVariable(name = "guildId") String guildId,
+                                                                          @RequestParam(name = "platform", required = false) List<String> platforms,
+                                                                          @RequestParam(name = "page", defaultValue = "0") int page,
+                                                                          @RequestParam(name = "size", defaultValue = "50") int size) {
+        try {
+            return new GenericObjectResponse<>(true, guildService.getNotifiers(sessionIdentifier, guildId, platforms, page, size), "Notifiers retrieved!");
+        } catch (Exception e) {
+            return new GenericObjectResponse<>(false, null, e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/{guildId}/notifiers/import", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public GenericObjectResponse<NotifierImportContainer> importNotifiers(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier,
+                                                                          @PathVariable(name = "guildId") String guildId,
+                                                                          @RequestBody List<NotifierImportRequest> request) {
+        try {
+            return new GenericObjectResponse<>(true, notifierService.importNotifiers(sessionIdentifier, guildId, request), "Import started!");
+        } catch (Exception e) {
+            return new GenericObjectResponse<>(false, null, e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/{guildId}/notifiers/import", consumes = "text/csv", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GenericObjectResponse<NotifierImportContainer> importNotifiersCsv(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier,
+                                                                             @PathVariable(name = "guildId") String guildId,
+                                                                             @RequestBody String request) {
+        try {
+            return new GenericObjectResponse<>(true, notifierService.importNotifiers(sessionIdentifier, guildId, request), "Import started!");
+        } catch (Exception e) {
+            return new GenericObjectResponse<>(false, null, e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/{guildId}/notifiers/import/{importId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GenericObjectResponse<NotifierImportContainer> retrieveNotifierImport(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier,
+                                                                                 @PathVariable(name = "guildId") String guildId,
+                                                                                 @PathVariable(name = "importId") String importId) {
+        try {
+            return new GenericObjectResponse<>(true, notifierService.getImport(sessionIdentifier, guildId, importId), "Import retrieved!");
+        } catch (Exception e) {
+            return new GenericObjectResponse<>(false, null, e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/{guildId}/notifiers/export")
+    public ResponseEntity<StreamingResponseBody> exportNotifiers(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier,
+                                                                 @PathVariable(name = "guildId") String guildId,
+                                                                 @RequestParam(name = "format", defaultValue = "json") String format) {
+        try {
+            boolean csv = format.equalsIgnoreCase("csv");
+
+            if (!csv && !format.equalsIgnoreCase("json")) {
+                return ResponseEntity.badRequest().body(null);
+            }
+
+            return ResponseEntity.ok()
+                    .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment()
+                                    .filename("notifiers." + (csv ? "csv" : "json"))
+                                    .build().toString())
+                    .body(notifierService.exportNotifiers(sessionIdentifier, guildId, csv));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(null);
+        }
+    }
+
     //region Reddit Notifier
 
     @GetMapping(value = "/{guildId}/reddit", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -695,6 +869,21 @@ public class GuildController {
         }
     }
 
+    @GetMapping(value = "/{guildId}/warnings/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GenericObjectResponse<WarningPageContainer> retrieveWarningPage(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @PathVariable(name = "guildId") String guildId,
+                                                                           @RequestParam(name = "sort", required = false) String sort,
+                                                                           @RequestParam(name = "cursor", required = false) String cursor,
+                                                                           @RequestParam(name = "size", required = false) Integer size,
+                                                                           @RequestParam(name = "minWarnings", required = false) Integer minWarnings,
+                                                                           @RequestParam(name = "userId", required = false) String userId) {
+        try {
+            return new GenericObjectResponse<>(true, moderationService.getWarningPage(sessionIdentifier, guildId, sort, cursor,
+                    size != null ? size : Data.getModerationPageSize(), minWarnings, userId), "Warnings retrieved!");
+        } catch (Exception e) {
+            return new GenericObjectResponse<>(false, null, e.getMessage());
+        }
+    }
+
     @PostMapping(value = "/{guildId}/warnings/add", produces = MediaType.APPLICATION_JSON_VALUE)
     public GenericObjectResponse<WarningContainer> addWarnings(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @PathVariable(name = "guildId") String guildId, @RequestBody WarningsRequest request) {
         try {
@@ -734,6 +923,19 @@ public class GuildController {
         }
     }
 
+    @GetMapping(value = "/{guildId}/warnings/punishments/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GenericObjectResponse<PunishmentPageContainer> retrievePunishmentPage(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @PathVariable(name = "guildId") String guildId,
+                                                                                 @RequestParam(name = "cursor", required = false) String cursor,
+                                                                                 @RequestParam(name = "size", required = false) Integer size,
+                                                                                 @RequestParam(name = "minWarnings", required = false) Integer minWarnings) {
+        try {
+            return new GenericObjectResponse<>(true, moderationService.getPunishmentPage(sessionIdentifier, guildId, cursor,
+                    size != null ? size : Data.getModerationPageSize(), minWarnings), "Punishments retrieved!");
+        } catch (Exception e) {
+            return new GenericObjectResponse<>(false, null, e.getMessage());
+        }
+    }
+
     @PostMapping(value = "/{guildId}/warnings/punishments/clear", produces = MediaType.APPLICATION_JSON_VALUE)
     public GenericResponse clearPunishments(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @PathVariable(name = "guildId") String guildId) {
         try {
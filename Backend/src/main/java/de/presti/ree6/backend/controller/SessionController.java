@@ -55,6 +55,21 @@ public class SessionController {
         }
     }
 
+    /**
+     * Close a Session.
+     * @param sessionIdentifier Session Identifier to identify the Session.
+     * @return Generic Response with the result.
+     */
+    @PostMapping(value = "/logout", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GenericResponse logout(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier) {
+        try {
+            sessionService.closeSession(sessionIdentifier);
+            return new GenericResponse(true, "Session closed!");
+        } catch (Exception e) {
+            return new GenericResponse(false, e.getMessage());
+        }
+    }
+
     //endregion
 
     //region Discord Auth
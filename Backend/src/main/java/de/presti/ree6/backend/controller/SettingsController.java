@@ -1,15 +1,17 @@
 package de.presti.ree6.backend.controller;
 
-import de.presti.ree6.backend.service.SessionService;
+import de.presti.ree6.backend.service.SettingsService;
 import de.presti.ree6.backend.utils.data.container.api.GenericObjectResponse;
 import de.presti.ree6.backend.utils.data.container.api.GenericResponse;
 import de.presti.ree6.backend.utils.data.container.api.GenericValueRequest;
-import de.presti.ree6.backend.utils.data.container.guild.GuildContainer;
-import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.backend.utils.data.container.SettingsSyncContainer;
+import de.presti.ree6.backend.utils.data.container.api.SettingsUpdateRequest;
 import de.presti.ree6.sql.entities.Setting;
-import de.presti.ree6.sql.util.SettingsManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collections;
@@ -23,17 +25,17 @@ import java.util.List;
 public class SettingsController {
 
     /**
-     * Session Service to handle Sessions.
+     * Settings Service to handle Settings.
      */
-    private final SessionService sessionService;
+    private final SettingsService settingsService;
 
     /**
      * Controller for the Settings Controller.
-     * @param sessionService Session Service to handle Sessions.
+     * @param settingsService Settings Service to handle Settings.
      */
     @Autowired
-    public SettingsController(SessionService sessionService) {
-        this.sessionService = sessionService;
+    public SettingsController(SettingsService settingsService) {
+        this.settingsService = settingsService;
     }
 
     //region Settings Retrieve
@@ -48,13 +50,37 @@ public class SettingsController {
     public GenericObjectResponse<List<Setting>> retrieveSettings(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier,
                                                   @PathVariable(name = "guildId") String guildId) {
         try {
-            GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
-            return new GenericObjectResponse<>(true, SQLSession.getSqlConnector().getSqlWorker().getAllSettings(guildId), "Setting retrieved!");
+            return new GenericObjectResponse<>(true, settingsService.getSettings(sessionIdentifier, guildId), "Setting retrieved!");
         } catch (Exception e) {
             return new GenericObjectResponse<>(false, Collections.emptyList(), e.getMessage());
         }
     }
 
+    /**
+     * Retrieve the Settings of a Guild that changed after a version.
+     * @param sessionIdentifier Session Identifier to identify the Session.
+     * @param guildId Guild ID to identify the Guild.
+     * @param since Version of the Settings the client already has.
+     * @return Generic Object Response with the changed Settings, or Not Modified if nothing changed.
+     */
+    @GetMapping(value = "/", params = "since", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<GenericObjectResponse<SettingsSyncContainer>> retrieveSettingsSince(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier,
+                                                                                      @PathVariable(name = "guildId") String guildId,
+                                                                                      @RequestParam(name = "since") long since) {
+        try {
+            SettingsSyncContainer settingsSyncContainer = settingsService.getSettingsSince(sessionIdentifier, guildId, since);
+
+            if (!settingsSyncContainer.isComplete() && settingsSyncContainer.getSettings().isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+            }
+
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                    .body(new GenericObjectResponse<>(true, settingsSyncContainer, "Settings retrieved!"));
+        } catch (Exception e) {
+            return ResponseEntity.ok(new GenericObjectResponse<>(false, null, e.getMessage()));
+        }
+    }
+
     /**
      * Retrieve a Setting for a Guild.
      * @param sessionIdentifier Session Identifier to identify the Session.
@@ -67,8 +93,7 @@ public class SettingsController {
                                            @PathVariable(name = "guildId") String guildId,
                                            @PathVariable(name = "settingName") String settingName) {
         try {
-            GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
-            return new GenericObjectResponse<>(true, SQLSession.getSqlConnector().getSqlWorker().getSetting(guildId, settingName), "Setting retrieved!");
+            return new GenericObjectResponse<>(true, settingsService.getSetting(sessionIdentifier, guildId, settingName), "Setting retrieved!");
         } catch (Exception e) {
             return new GenericObjectResponse<>(false, null, e.getMessage());
         }
@@ -92,15 +117,30 @@ public class SettingsController {
                                          @PathVariable(name = "settingName") String settingName,
                                          @RequestBody GenericValueRequest request) {
         try {
-            GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
-            Setting setting = SQLSession.getSqlConnector().getSqlWorker().getSetting(guildId, settingName);
-            setting.setValue(request.value());
-            return new GenericObjectResponse<>(true, SQLSession.getSqlConnector().getSqlWorker().updateEntity(setting), "Setting updated!");
+            return new GenericObjectResponse<>(true, settingsService.updateSetting(sessionIdentifier, guildId, settingName, request.value()), "Setting updated!");
         } catch (Exception e) {
             return new GenericObjectResponse<>(false, null, e.getMessage());
         }
     }
 
+    /**
+     * Update multiple Settings for a Guild in one transaction.
+     * @param sessionIdentifier Session Identifier to identify the Session.
+     * @param guildId Guild ID to identify the Guild.
+     * @param request Settings Update Request with the new Values.
+     * @return Generic Object Response with the updated Settings.
+     */
+    @PostMapping(value = "/update", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GenericObjectResponse<List<Setting>> updateSettings(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier,
+                                                @PathVariable(name = "guildId") String guildId,
+                                                @RequestBody SettingsUpdateRequest request) {
+        try {
+            return new GenericObjectResponse<>(true, settingsService.updateSettings(sessionIdentifier, guildId, request.settings()), "Settings updated!");
+        } catch (Exception e) {
+            return new GenericObjectResponse<>(false, Collections.emptyList(), e.getMessage());
+        }
+    }
+
     //endregion
 
     //region Setting Delete
@@ -117,16 +157,30 @@ public class SettingsController {
                                          @PathVariable(name = "guildId") String guildId,
                                          @PathVariable(name = "settingName") String settingName) {
         try {
-            GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
-            Setting setting = SettingsManager.getDefault(settingName);
-            setting.setGuildId(guildId);
-
-            SQLSession.getSqlConnector().getSqlWorker().setSetting(setting);
+            settingsService.deleteSetting(sessionIdentifier, guildId, settingName);
             return new GenericResponse(true,"Setting deleted!");
         } catch (Exception e) {
             return new GenericResponse(false, e.getMessage());
         }
     }
 
+    /**
+     * Reset multiple Settings for a Guild to their default values.
+     * @param sessionIdentifier Session Identifier to identify the Session.
+     * @param guildId Guild ID to identify the Guild.
+     * @param prefix Prefix of the Setting Names to reset, every Setting if it is not set.
+     * @return Generic Object Response with the reset Settings.
+     */
+    @PostMapping(value = "/reset", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GenericObjectResponse<List<Setting>> resetSettings(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier,
+                                               @PathVariable(name = "guildId") String guildId,
+                                               @RequestParam(name = "prefix", required = false) String prefix) {
+        try {
+            return new GenericObjectResponse<>(true, settingsService.resetSettings(sessionIdentifier, guildId, prefix), "Settings reset!");
+        } catch (Exception e) {
+            return new GenericObjectResponse<>(false, Collections.emptyList(), e.getMessage());
+        }
+    }
+
     //endregion
 }
@@ -1,10 +1,14 @@
 package de.presti.ree6.backend.service;
 
-import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
-import com.google.gson.JsonPrimitive;
+import de.presti.ree6.backend.bot.MemberResolution;
+import de.presti.ree6.backend.bot.UserProfileCache;
+import de.presti.ree6.backend.bot.WebhookCache;
+import de.presti.ree6.backend.utils.ThreadUtil;
+import de.presti.ree6.backend.utils.data.Data;
 import de.presti.ree6.backend.utils.data.container.*;
 import de.presti.ree6.backend.utils.data.container.api.GenericNotifierRequest;
+import de.presti.ree6.backend.utils.data.container.api.GenericObjectResponse;
 import de.presti.ree6.backend.utils.data.container.guild.GuildContainer;
 import de.presti.ree6.backend.utils.data.container.guild.GuildStatsContainer;
 import de.presti.ree6.backend.utils.data.container.role.RoleContainer;
@@ -14,32 +18,52 @@ import de.presti.ree6.sql.SQLSession;
 import de.presti.ree6.sql.entities.*;
 import de.presti.ree6.sql.entities.custom.CustomCommand;
 import de.presti.ree6.sql.entities.webhook.*;
+import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildMessageChannel;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class GuildService {
 
     private final SessionService sessionService;
 
+    private final SettingsService settingsService;
+
     @Autowired
-    public GuildService(SessionService sessionService) {
+    public GuildService(SessionService sessionService, SettingsService settingsService) {
         this.sessionService = sessionService;
+        this.settingsService = settingsService;
     }
 
     //region Stats
 
     public GuildStatsContainer getStats(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
+        return getStats(sessionService.retrieveGuild(sessionIdentifier, guildId));
+    }
+
+    public GuildStatsContainer getStats(GuildContainer guildContainer) throws IllegalAccessException {
+        String guildId = guildContainer.getId();
         return new GuildStatsContainer(SQLSession.getSqlConnector().getSqlWorker().getInvites(guildId).size(),
                 SQLSession.getSqlConnector().getSqlWorker().getStats(guildId).stream().map(CommandStatsContainer::new).toList());
     }
@@ -56,10 +80,96 @@ public class GuildService {
 
     //endregion
 
+    //region Blacklist
+
+    public List<String> getBlacklist(GuildContainer guildContainer) {
+        return SQLSession.getSqlConnector().getSqlWorker().getChatProtectorWords(guildContainer.getId());
+    }
+
+    //endregion
+
+    //region AutoRole
+
+    public List<RoleContainer> getAutoRoles(GuildContainer guildContainer) {
+        return SQLSession.getSqlConnector().getSqlWorker().getAutoRoles(guildContainer.getId()).stream()
+                .map(c -> guildContainer.getRoleById(c.getRoleId())).filter(Objects::nonNull).toList();
+    }
+
+    //endregion
+
+    //region Bundle
+
+    public Map<String, GenericObjectResponse<Object>> getBundle(String sessionIdentifier, String guildId, List<String> sections) throws IllegalAccessException {
+        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, true, true);
+
+        Map<String, CompletableFuture<Object>> tasks = new LinkedHashMap<>();
+        for (String section : sections) {
+            String name = section.trim().toLowerCase();
+            if (!name.isEmpty() && !tasks.containsKey(name)) {
+                tasks.put(name, ThreadUtil.createTask(() -> getSection(guildContainer, name)));
+            }
+        }
+
+        // A single deadline for every section, so the wait does not grow with the amount of sections.
+        try {
+            CompletableFuture.allOf(tasks.values().toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException ignore) {
+            // The failed and unfinished sections are reported one by one below.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Map<String, GenericObjectResponse<Object>> bundle = new LinkedHashMap<>();
+        tasks.forEach((name, task) -> {
+            if (!task.isDone()) {
+                bundle.put(name, new GenericObjectResponse<>(false, null, Thread.currentThread().isInterrupted() ? "Section interrupted!" : "Section timed out!"));
+            } else if (task.isCompletedExceptionally()) {
+                bundle.put(name, new GenericObjectResponse<>(false, null, task.exceptionNow().getMessage()));
+            } else {
+                bundle.put(name, new GenericObjectResponse<>(true, task.resultNow(), "Section retrieved!"));
+            }
+        });
+
+        return bundle;
+    }
+
+    private Object getSection(GuildContainer guildContainer, String section) throws IllegalAccessException {
+        return switch (section) {
+            case "channels" -> guildContainer.getChannels();
+            case "roles" -> guildContainer.getRoles();
+            case "blacklist" -> getBlacklist(guildContainer);
+            case "autorole" -> getAutoRoles(guildContainer);
+            case "stats" -> getStats(guildContainer);
+            case "chatrole" -> getChatAutoRoles(guildContainer);
+            case "voicerole" -> getVoiceAutoRoles(guildContainer);
+            case "welcome" -> getWelcomeChannel(guildContainer);
+            case "log" -> getLogChannel(guildContainer);
+            case "reddit" -> getRedditNotifier(guildContainer);
+            case "twitch" -> getTwitchNotifier(guildContainer);
+            case "twitter" -> getTwitterNotifier(guildContainer);
+            case "youtube" -> getYouTubeNotifier(guildContainer);
+            case "instagram" -> getInstagramNotifier(guildContainer);
+            case "temporalvoice" -> getTemporalVoice(guildContainer);
+            case "tickets" -> getTicket(guildContainer);
+            case "suggestions" -> getSuggestion(guildContainer);
+            case "warnings" -> getWarnings(guildContainer);
+            case "punishments" -> getPunishments(guildContainer);
+            case "commands" -> getCustomCommand(guildContainer);
+            case "reactionroles" -> retrieveReactionRoles(guildContainer);
+            default -> throw new IllegalAccessException("Section not found!");
+        };
+    }
+
+    //endregion
+
     //region Log channel
 
     public ChannelContainer getLogChannel(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, true);
+        return getLogChannel(sessionService.retrieveGuild(sessionIdentifier, guildId, true));
+    }
+
+    public ChannelContainer getLogChannel(GuildContainer guildContainer) throws IllegalAccessException {
+        String guildId = guildContainer.getId();
         WebhookLog webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(guildId);
         if (webhook == null) {
             return new ChannelContainer();
@@ -68,12 +178,10 @@ public class GuildService {
         if (webhook.getChannelId() != 0) {
             return new ChannelContainer(guildContainer.getGuildChannelById(String.valueOf(webhook.getChannelId())));
         } else {
-            net.dv8tion.jda.api.entities.Webhook webhook1 = guildContainer.getGuild().retrieveWebhooks().complete().stream()
-                    .filter(entry -> entry.getId().equalsIgnoreCase(webhook.getWebhookId()) && entry.getToken().equalsIgnoreCase(webhook.getToken())).findFirst().orElse(null);
+            // The channel is filled in by the WebhookReconciler, until then it is read from the Webhooks of the Guild.
+            net.dv8tion.jda.api.entities.Webhook webhook1 = findWebhook(guildContainer.getGuild(), webhook.getWebhookId());
 
-            if (webhook1 != null) {
-                webhook.setChannelId(webhook1.getChannel().getIdLong());
-                SQLSession.getSqlConnector().getSqlWorker().updateEntity(webhook);
+            if (webhook1 != null && webhook1.getToken() != null && webhook1.getToken().equalsIgnoreCase(webhook.getToken())) {
                 return new ChannelContainer(webhook1);
             }
         }
@@ -88,7 +196,9 @@ public class GuildService {
 
         net.dv8tion.jda.api.entities.Webhook newWebhook = channel.createWebhook("Ree6-Log").complete();
 
-        WebhookWelcome welcome = deleteWelcomeChannel(guild);
+        WebhookCache.invalidate(guild.getIdLong());
+
+        WebhookLog log = deleteLogChannel(guild);
 
         SQLSession.getSqlConnector().getSqlWorker().setLogWebhook(guildId, channel.getIdLong(), newWebhook.getId(), newWebhook.getToken());
     }
@@ -101,9 +211,7 @@ public class GuildService {
         WebhookLog webhook = SQLSession.getSqlConnector().getSqlWorker().getLogWebhook(guild.getId());
 
         if (webhook != null) {
-            guild.retrieveWebhooks().queue(c -> c.stream().filter(entry -> entry.getToken() != null)
-                    .filter(entry -> entry.getId().equalsIgnoreCase(webhook.getWebhookId()) && entry.getToken().equalsIgnoreCase(webhook.getToken()))
-                    .forEach(entry -> entry.delete().queue()));
+            deleteWebhook(guild, webhook.getWebhookId(), webhook.getToken());
         }
 
         return webhook;
@@ -114,7 +222,11 @@ public class GuildService {
     //region Welcome channel
 
     public ChannelContainer getWelcomeChannel(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, true);
+        return getWelcomeChannel(sessionService.retrieveGuild(sessionIdentifier, guildId, true));
+    }
+
+    public ChannelContainer getWelcomeChannel(GuildContainer guildContainer) throws IllegalAccessException {
+        String guildId = guildContainer.getId();
         WebhookWelcome webhook = SQLSession.getSqlConnector().getSqlWorker().getWelcomeWebhook(guildId);
         if (webhook == null) {
             return new ChannelContainer();
@@ -123,12 +235,10 @@ public class GuildService {
         if (webhook.getChannelId() != 0) {
             return new ChannelContainer(guildContainer.getGuildChannelById(String.valueOf(webhook.getChannelId())));
         } else {
-            net.dv8tion.jda.api.entities.Webhook webhook1 = guildContainer.getGuild().retrieveWebhooks().complete().stream()
-                    .filter(entry -> entry.getId().equalsIgnoreCase(webhook.getWebhookId()) && entry.getToken().equalsIgnoreCase(webhook.getToken())).findFirst().orElse(null);
+            // The channel is filled in by the WebhookReconciler, until then it is read from the Webhooks of the Guild.
+            net.dv8tion.jda.api.entities.Webhook webhook1 = findWebhook(guildContainer.getGuild(), webhook.getWebhookId());
 
-            if (webhook1 != null) {
-                webhook.setChannelId(webhook1.getChannel().getIdLong());
-                SQLSession.getSqlConnector().getSqlWorker().updateEntity(webhook);
+            if (webhook1 != null && webhook1.getToken() != null && webhook1.getToken().equalsIgnoreCase(webhook.getToken())) {
                 return new ChannelContainer(webhook1);
             }
         }
@@ -146,6 +256,8 @@ public class GuildService {
 
         net.dv8tion.jda.api.entities.Webhook newWebhook = channel.createWebhook("Ree6-Welcome").complete();
 
+        WebhookCache.invalidate(guild.getIdLong());
+
         SQLSession.getSqlConnector().getSqlWorker().setWelcomeWebhook(guildId, channel.getIdLong(), newWebhook.getId(), newWebhook.getToken());
     }
 
@@ -157,9 +269,7 @@ public class GuildService {
         WebhookWelcome webhook = SQLSession.getSqlConnector().getSqlWorker().getWelcomeWebhook(guild.getId());
 
         if (webhook != null) {
-            guild.retrieveWebhooks().queue(c -> c.stream().filter(entry -> entry.getToken() != null)
-                    .filter(entry -> entry.getId().equalsIgnoreCase(webhook.getWebhookId()) && entry.getToken().equalsIgnoreCase(webhook.getToken()))
-                    .forEach(entry -> entry.delete().queue()));
+            deleteWebhook(guild, webhook.getWebhookId(), webhook.getToken());
         }
 
         return webhook;
@@ -172,11 +282,11 @@ public class GuildService {
     //region Reddit Notifications
 
     public List<NotifierContainer> getRedditNotifier(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
-        List<WebhookReddit> subreddits = SQLSession.getSqlConnector().getSqlWorker().getAllRedditWebhooks(guildId);
+        return getRedditNotifier(sessionService.retrieveGuild(sessionIdentifier, guildId));
+    }
 
-        return subreddits.stream().map(subreddit -> new NotifierContainer(subreddit.getSubreddit(), subreddit.getMessage(), guildContainer.getGuild().retrieveWebhooks()
-                .complete().stream().filter(c -> c.getId().equals(subreddit.getGuildId())).map(ChannelContainer::new).findFirst().orElse(null))).toList();
+    public List<NotifierContainer> getRedditNotifier(GuildContainer guildContainer) throws IllegalAccessException {
+        return getNotifiers(guildContainer, NotifierPlatform.REDDIT);
     }
 
     public void addRedditNotifier(String sessionIdentifier, String guildId, GenericNotifierRequest notifierRequest) throws IllegalAccessException {
@@ -186,6 +296,8 @@ public class GuildService {
 
         net.dv8tion.jda.api.entities.Webhook newWebhook = channel.createWebhook("Ree6-RedditNotifier-" + notifierRequest.name()).complete();
 
+        WebhookCache.invalidate(guild.getIdLong());
+
         SQLSession.getSqlConnector().getSqlWorker().addRedditWebhook(guildId, channel.getIdLong(), newWebhook.getId(), newWebhook.getToken(),
                 notifierRequest.name(), notifierRequest.message());
     }
@@ -201,11 +313,11 @@ public class GuildService {
     //region Twitch Notifications
 
     public List<NotifierContainer> getTwitchNotifier(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
-        List<WebhookTwitch> twitchChannels = SQLSession.getSqlConnector().getSqlWorker().getAllTwitchWebhooks(guildId);
+        return getTwitchNotifier(sessionService.retrieveGuild(sessionIdentifier, guildId));
+    }
 
-        return twitchChannels.stream().map(twitchChannel -> new NotifierContainer(twitchChannel.getName(), twitchChannel.getMessage(), guildContainer.getGuild().retrieveWebhooks()
-                .complete().stream().filter(c -> c.getId().equals(twitchChannel.getGuildId())).map(ChannelContainer::new).findFirst().orElse(null))).toList();
+    public List<NotifierContainer> getTwitchNotifier(GuildContainer guildContainer) throws IllegalAccessException {
+        return getNotifiers(guildContainer, NotifierPlatform.TWITCH);
     }
 
     public void addTwitchNotifier(String sessionIdentifier, String guildId, GenericNotifierRequest notifierRequest) throws IllegalAccessException {
@@ -215,6 +327,8 @@ public class GuildService {
 
         net.dv8tion.jda.api.entities.Webhook newWebhook = channel.createWebhook("Ree6-TwitchNotifier-" + notifierRequest.name()).complete();
 
+        WebhookCache.invalidate(guild.getIdLong());
+
         SQLSession.getSqlConnector().getSqlWorker().addTwitchWebhook(guildId, channel.getIdLong(), newWebhook.getId(), newWebhook.getToken(),
                 notifierRequest.name(), notifierRequest.message());
     }
@@ -229,11 +343,11 @@ public class GuildService {
     //region YouTube Notifications
 
     public List<NotifierContainer> getYouTubeNotifier(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
-        List<WebhookYouTube> youtubers = SQLSession.getSqlConnector().getSqlWorker().getAllYouTubeWebhooks(guildId);
+        return getYouTubeNotifier(sessionService.retrieveGuild(sessionIdentifier, guildId));
+    }
 
-        return youtubers.stream().map(youtuber -> new NotifierContainer(youtuber.getName(), youtuber.getMessage(), guildContainer.getGuild().retrieveWebhooks()
-                .complete().stream().filter(c -> c.getId().equals(youtuber.getGuildId())).map(ChannelContainer::new).findFirst().orElse(null))).toList();
+    public List<NotifierContainer> getYouTubeNotifier(GuildContainer guildContainer) throws IllegalAccessException {
+        return getNotifiers(guildContainer, NotifierPlatform.YOUTUBE);
     }
 
     public void addYouTubeNotifier(String sessionIdentifier, String guildId, GenericNotifierRequest notifierRequest) throws IllegalAccessException {
@@ -243,6 +357,8 @@ public class GuildService {
 
         net.dv8tion.jda.api.entities.Webhook newWebhook = channel.createWebhook("Ree6-YoutubeNotifier-" + notifierRequest.name()).complete();
 
+        WebhookCache.invalidate(guild.getIdLong());
+
         SQLSession.getSqlConnector().getSqlWorker().addYouTubeWebhook(guildId, channel.getIdLong(), newWebhook.getId(), newWebhook.getToken(),
                 notifierRequest.name(), notifierRequest.message());
     }
@@ -257,11 +373,11 @@ public class GuildService {
     //region Twitter Notifications
 
     public List<NotifierContainer> getTwitterNotifier(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
-        List<WebhookTwitter> twitterUsers = SQLSession.getSqlConnector().getSqlWorker().getAllTwitterWebhooks(guildId);
+        return getTwitterNotifier(sessionService.retrieveGuild(sessionIdentifier, guildId));
+    }
 
-        return twitterUsers.stream().map(twitterUser -> new NotifierContainer(twitterUser.getName(), twitterUser.getMessage(), guildContainer.getGuild().retrieveWebhooks()
-                .complete().stream().filter(c -> c.getId().equals(twitterUser.getGuildId())).map(ChannelContainer::new).findFirst().orElse(null))).toList();
+    public List<NotifierContainer> getTwitterNotifier(GuildContainer guildContainer) throws IllegalAccessException {
+        return getNotifiers(guildContainer, NotifierPlatform.TWITTER);
     }
 
     public void addTwitterNotifier(String sessionIdentifier, String guildId, GenericNotifierRequest notifierRequest) throws IllegalAccessException {
@@ -271,6 +387,8 @@ public class GuildService {
 
         net.dv8tion.jda.api.entities.Webhook newWebhook = channel.createWebhook("Ree6-TwitterNotifier-" + notifierRequest.name()).complete();
 
+        WebhookCache.invalidate(guild.getIdLong());
+
         SQLSession.getSqlConnector().getSqlWorker().addTwitterWebhook(guildId, channel.getIdLong(), newWebhook.getId(), newWebhook.getToken(),
                 notifierRequest.name(), notifierRequest.message());
     }
@@ -285,11 +403,11 @@ public class GuildService {
     //region Instagram Notifications
 
     public List<NotifierContainer> getInstagramNotifier(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
-        List<WebhookInstagram> instagramUsers = SQLSession.getSqlConnector().getSqlWorker().getAllInstagramWebhooks(guildId);
+        return getInstagramNotifier(sessionService.retrieveGuild(sessionIdentifier, guildId));
+    }
 
-        return instagramUsers.stream().map(instagramUser -> new NotifierContainer(instagramUser.getName(), instagramUser.getMessage(), guildContainer.getGuild().retrieveWebhooks()
-                .complete().stream().filter(c -> c.getId().equals(instagramUser.getGuildId())).map(ChannelContainer::new).findFirst().orElse(null))).toList();
+    public List<NotifierContainer> getInstagramNotifier(GuildContainer guildContainer) throws IllegalAccessException {
+        return getNotifiers(guildContainer, NotifierPlatform.INSTAGRAM);
     }
 
     public void addInstagramNotifier(String sessionIdentifier, String guildId, GenericNotifierRequest notifierRequest) throws IllegalAccessException {
@@ -299,6 +417,8 @@ public class GuildService {
 
         net.dv8tion.jda.api.entities.Webhook newWebhook = channel.createWebhook("Ree6-InstagramNotifier-" + notifierRequest.name()).complete();
 
+        WebhookCache.invalidate(guild.getIdLong());
+
         SQLSession.getSqlConnector().getSqlWorker().addInstagramWebhook(guildId, channel.getIdLong(), newWebhook.getId(), newWebhook.getToken(),
                 notifierRequest.name(), notifierRequest.message());
     }
@@ -310,6 +430,124 @@ public class GuildService {
 
     //endregion
 
+    public NotifierPageContainer getNotifiers(String sessionIdentifier, String guildId, List<String> platforms, int page, int size) throws IllegalAccessException {
+        if (page < 0 || size < 1 || size > Data.getNotifierPageLimit()) {
+            throw new IllegalAccessException("Invalid page!");
+        }
+
+        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
+
+        Set<NotifierPlatform> selected = EnumSet.noneOf(NotifierPlatform.class);
+        if (platforms == null || platforms.isEmpty()) {
+            selected.addAll(EnumSet.allOf(NotifierPlatform.class));
+        } else {
+            for (String platform : platforms) {
+                try {
+                    selected.add(NotifierPlatform.valueOf(platform.trim().toUpperCase()));
+                } catch (IllegalArgumentException ignore) {
+                    throw new IllegalAccessException("Platform not found!");
+                }
+            }
+        }
+
+        // Every platform has its own table, so they are queried at the same time.
+        Map<NotifierPlatform, CompletableFuture<List<NotifierContainer>>> tasks = new EnumMap<>(NotifierPlatform.class);
+        selected.forEach(platform -> tasks.put(platform, ThreadUtil.createTask(() -> loadNotifiers(platform, guildContainer.getId()))));
+
+        List<NotifierContainer> notifiers = new ArrayList<>();
+        for (CompletableFuture<List<NotifierContainer>> task : tasks.values()) {
+            try {
+                notifiers.addAll(task.get(30, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Could not retrieve the Notifiers!", e.getCause());
+            } catch (TimeoutException e) {
+                tasks.values().forEach(future -> future.cancel(true));
+                throw new IllegalStateException("Notifiers timed out!");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Notifiers interrupted!");
+            }
+        }
+
+        // The tables have no order, so the Notifiers are sorted to keep the pages stable between requests.
+        notifiers.sort(Comparator.comparing(NotifierContainer::getPlatform)
+                .thenComparing(NotifierContainer::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+                .thenComparing(NotifierContainer::getName, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(NotifierContainer::getWebhookId, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        int from = (int) Math.min((long) page * size, notifiers.size());
+        List<NotifierContainer> pageNotifiers = notifiers.subList(from, Math.min(from + size, notifiers.size()));
+
+        // Only the channels of the requested page have to be resolved.
+        resolveNotifierChannels(pageNotifiers, guildContainer.getGuild());
+
+        return new NotifierPageContainer(List.copyOf(pageNotifiers), page, size, notifiers.size());
+    }
+
+    private List<NotifierContainer> getNotifiers(GuildContainer guildContainer, NotifierPlatform platform) {
+        return resolveNotifierChannels(loadNotifiers(platform, guildContainer.getId()), guildContainer.getGuild());
+    }
+
+    public List<NotifierContainer> loadNotifiers(NotifierPlatform platform, String guildId) {
+        return switch (platform) {
+            case REDDIT -> SQLSession.getSqlConnector().getSqlWorker().getAllRedditWebhooks(guildId).stream()
+                    .map(subreddit -> new NotifierContainer(platform, subreddit.getSubreddit(), subreddit.getMessage(), subreddit.getChannelId(), subreddit.getWebhookId())).toList();
+            case TWITCH -> SQLSession.getSqlConnector().getSqlWorker().getAllTwitchWebhooks(guildId).stream()
+                    .map(twitchChannel -> new NotifierContainer(platform, twitchChannel.getName(), twitchChannel.getMessage(), twitchChannel.getChannelId(), twitchChannel.getWebhookId())).toList();
+            case TWITTER -> SQLSession.getSqlConnector().getSqlWorker().getAllTwitterWebhooks(guildId).stream()
+                    .map(twitterUser -> new NotifierContainer(platform, twitterUser.getName(), twitterUser.getMessage(), twitterUser.getChannelId(), twitterUser.getWebhookId())).toList();
+            case YOUTUBE -> SQLSession.getSqlConnector().getSqlWorker().getAllYouTubeWebhooks(guildId).stream()
+                    .map(youtuber -> new NotifierContainer(platform, youtuber.getName(), youtuber.getMessage(), youtuber.getChannelId(), youtuber.getWebhookId())).toList();
+            case INSTAGRAM -> SQLSession.getSqlConnector().getSqlWorker().getAllInstagramWebhooks(guildId).stream()
+                    .map(instagramUser -> new NotifierContainer(platform, instagramUser.getName(), instagramUser.getMessage(), instagramUser.getChannelId(), instagramUser.getWebhookId())).toList();
+        };
+    }
+
+    public List<NotifierContainer> resolveNotifierChannels(List<NotifierContainer> notifiers, Guild guild) {
+        notifiers.forEach(notifier -> notifier.setChannel(getNotifierChannel(guild, notifier)));
+        return notifiers;
+    }
+
+    private ChannelContainer getNotifierChannel(Guild guild, NotifierContainer notifier) {
+        if (guild == null) return null;
+
+        if (notifier.getChannelId() != 0) {
+            GuildChannel channel = guild.getGuildChannelById(notifier.getChannelId());
+
+            if (channel != null) {
+                return new ChannelContainer(channel);
+            }
+        }
+
+        // The channel is filled in by the WebhookReconciler, until then it is read from the Webhooks of the Guild.
+        net.dv8tion.jda.api.entities.Webhook webhook = findWebhook(guild, notifier.getWebhookId());
+        return webhook != null ? new ChannelContainer(webhook) : null;
+    }
+
+    /**
+     * Get a Webhook of a Guild without changing anything, the Webhooks are only retrieved if there is no snapshot.
+     *
+     * @param guild     the Guild.
+     * @param webhookId the ID of the Webhook.
+     * @return the Webhook or {@code null} if it does not exist or the Webhooks could not be retrieved.
+     */
+    private net.dv8tion.jda.api.entities.Webhook findWebhook(Guild guild, String webhookId) {
+        try {
+            return WebhookCache.getWebhook(guild, webhookId);
+        } catch (RuntimeException exception) {
+            log.warn("Could not retrieve the Webhooks of {}!", guild != null ? guild.getId() : null, exception);
+            return null;
+        }
+    }
+
+    private void deleteWebhook(Guild guild, String webhookId, String token) {
+        net.dv8tion.jda.api.entities.Webhook webhook = WebhookCache.getWebhook(guild, webhookId);
+
+        if (webhook != null && webhook.getToken() != null && webhook.getToken().equalsIgnoreCase(token)) {
+            webhook.delete().queue(deleted -> WebhookCache.invalidate(guild.getIdLong()));
+        }
+    }
+
     //endregion
 
     //region LevelRewards
@@ -317,7 +555,11 @@ public class GuildService {
     //region Chat
 
     public List<RoleLevelContainer> getChatAutoRoles(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, false, true);
+        return getChatAutoRoles(sessionService.retrieveGuild(sessionIdentifier, guildId, false, true));
+    }
+
+    public List<RoleLevelContainer> getChatAutoRoles(GuildContainer guildContainer) throws IllegalAccessException {
+        String guildId = guildContainer.getId();
         return SQLSession.getSqlConnector().getSqlWorker().getChatLevelRewards(guildId).entrySet().stream().map(x -> new RoleLevelContainer(x.getKey(), guildContainer.getRoleById(x.getValue()))).toList();
     }
 
@@ -340,7 +582,11 @@ public class GuildService {
     //region Voice
 
     public List<RoleLevelContainer> getVoiceAutoRoles(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, false, true);
+        return getVoiceAutoRoles(sessionService.retrieveGuild(sessionIdentifier, guildId, false, true));
+    }
+
+    public List<RoleLevelContainer> getVoiceAutoRoles(GuildContainer guildContainer) throws IllegalAccessException {
+        String guildId = guildContainer.getId();
         return SQLSession.getSqlConnector().getSqlWorker().getVoiceLevelRewards(guildId).entrySet().stream().map(x -> new RoleLevelContainer(x.getKey(), guildContainer.getRoleById(x.getValue()))).toList();
     }
 
@@ -362,56 +608,14 @@ public class GuildService {
 
     //endregion
 
-    //region Recording
-
-    public Recording getRecording(String sessionIdentifier, String recordId) throws IllegalAccessException {
-        SessionContainer sessionContainer = sessionService.retrieveSession(sessionIdentifier);
-        List<GuildContainer> guilds = sessionService.retrieveGuilds(sessionIdentifier, false);
-
-        Recording recording = SQLSession.getSqlConnector().getSqlWorker().getEntity(new Recording(), "FROM Recording WHERE identifier=:id", Map.of("id", recordId));
-
-        if (recording == null)
-            throw new IllegalAccessException("Recording not found!");
-
-        if (guilds.stream().anyMatch(g -> g.getId().equalsIgnoreCase(recording.getGuildId()))) {
-            boolean found = false;
-
-            for (JsonElement element : recording.getJsonArray()) {
-                if (element.isJsonPrimitive()) {
-                    JsonPrimitive primitive = element.getAsJsonPrimitive();
-                    if (primitive.isString() && primitive.getAsString().equalsIgnoreCase(sessionContainer.getUser().getId())) {
-                        found = true;
-                        break;
-                    }
-                }
-            }
-
-            if (found) {
-                return recording;
-            } else {
-                throw new IllegalAccessException("You were not part of this recording.");
-            }
-        } else {
-            throw new IllegalAccessException("You were not part of the Guild this recording was made in!");
-        }
-    }
-
-    public RecordContainer getRecordingContainer(String sessionIdentifier, String recordId) throws IllegalAccessException {
-        return new RecordContainer(getRecording(sessionIdentifier, recordId));
-    }
-
-    public byte[] getRecordingBytes(String sessionIdentifier, String recordId) throws IllegalAccessException {
-        Recording recording = getRecording(sessionIdentifier, recordId);
-        SQLSession.getSqlConnector().getSqlWorker().deleteEntity(recording);
-        return recording.getRecording();
-    }
-
-    //endregion
-
     //region Temporal Voice
 
     public ChannelContainer getTemporalVoice(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, true, false);
+        return getTemporalVoice(sessionService.retrieveGuild(sessionIdentifier, guildId, true, false));
+    }
+
+    public ChannelContainer getTemporalVoice(GuildContainer guildContainer) throws IllegalAccessException {
+        String guildId = guildContainer.getId();
         TemporalVoicechannel temporalVoicechannel = SQLSession.getSqlConnector().getSqlWorker()
                 .getEntity(new TemporalVoicechannel(), "FROM TemporalVoicechannel WHERE guildId=:gid", Map.of("gid", guildId));
 
@@ -475,7 +679,11 @@ public class GuildService {
     //region Ticket
 
     public TicketContainer getTicket(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, true, false);
+        return getTicket(sessionService.retrieveGuild(sessionIdentifier, guildId, true, false));
+    }
+
+    public TicketContainer getTicket(GuildContainer guildContainer) throws IllegalAccessException {
+        String guildId = guildContainer.getId();
         Tickets tickets = SQLSession.getSqlConnector().getSqlWorker().getEntity(new Tickets(), "FROM Tickets WHERE guildId=:gid", Map.of("gid", guildId));
 
         if (tickets == null) {
@@ -494,8 +702,8 @@ public class GuildService {
         }
 
         ticketContainer.setLogChannel(logChannel);
-        ticketContainer.setTicketOpenMessage(SQLSession.getSqlConnector().getSqlWorker().getSetting(guildId, "message_ticket_open").getStringValue());
-        ticketContainer.setTicketMenuMessage(SQLSession.getSqlConnector().getSqlWorker().getSetting(guildId, "message_ticket_menu").getStringValue());
+        ticketContainer.setTicketOpenMessage(settingsService.getSetting(guildId, "message_ticket_open").getStringValue());
+        ticketContainer.setTicketMenuMessage(settingsService.getSetting(guildId, "message_ticket_menu").getStringValue());
 
         return ticketContainer;
     }
@@ -531,9 +739,11 @@ public class GuildService {
             Tickets finalTickets = tickets;
             guild.retrieveWebhooks().queue(c -> c.stream().filter(entry -> entry.getToken() != null)
                     .filter(entry -> entry.getIdLong() == finalTickets.getLogChannelId() && entry.getToken().equalsIgnoreCase(finalTickets.getLogChannelWebhookToken()))
-                    .forEach(entry -> entry.delete().queue()));
+                    .forEach(entry -> entry.delete().queue(deleted -> WebhookCache.invalidate(entry.getGuild().getIdLong()))));
 
             net.dv8tion.jda.api.entities.Webhook newWebhook = channel.createWebhook("Ticket-Log").complete();
+
+            WebhookCache.invalidate(guild.getIdLong());
             tickets.setLogChannelWebhookToken(newWebhook.getToken());
             tickets.setLogChannelWebhookId(newWebhook.getIdLong());
             tickets.setLogChannelId(channel.getIdLong());
@@ -551,7 +761,7 @@ public class GuildService {
         if (tickets != null) {
             guildContainer.getGuild().retrieveWebhooks().queue(c -> c.stream().filter(entry -> entry.getToken() != null)
                     .filter(entry -> entry.getIdLong() == tickets.getLogChannelId() && entry.getToken().equalsIgnoreCase(tickets.getLogChannelWebhookToken()))
-                    .forEach(entry -> entry.delete().queue()));
+                    .forEach(entry -> entry.delete().queue(deleted -> WebhookCache.invalidate(entry.getGuild().getIdLong()))));
 
             SQLSession.getSqlConnector().getSqlWorker().deleteEntity(tickets);
         }
@@ -562,7 +772,11 @@ public class GuildService {
     //region Suggestion
 
     public ChannelContainer getSuggestion(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, true, false);
+        return getSuggestion(sessionService.retrieveGuild(sessionIdentifier, guildId, true, false));
+    }
+
+    public ChannelContainer getSuggestion(GuildContainer guildContainer) throws IllegalAccessException {
+        String guildId = guildContainer.getId();
 
         Suggestions suggestions = SQLSession.getSqlConnector().getSqlWorker().getEntity(new Suggestions(),
                 "FROM Suggestions WHERE guildId = :id", Map.of("id", guildId));
@@ -610,7 +824,7 @@ public class GuildService {
         if (tickets != null) {
             guildContainer.getGuild().retrieveWebhooks().queue(c -> c.stream().filter(entry -> entry.getToken() != null)
                     .filter(entry -> entry.getIdLong() == tickets.getLogChannelId() && entry.getToken().equalsIgnoreCase(tickets.getLogChannelWebhookToken()))
-                    .forEach(entry -> entry.delete().queue()));
+                    .forEach(entry -> entry.delete().queue(deleted -> WebhookCache.invalidate(entry.getGuild().getIdLong()))));
 
             SQLSession.getSqlConnector().getSqlWorker().deleteEntity(tickets);
         }
@@ -621,11 +835,21 @@ public class GuildService {
     //region Warnings
 
     public List<WarningContainer> getWarnings(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, false, false);
+        return getWarnings(sessionService.retrieveGuild(sessionIdentifier, guildId, false, false));
+    }
 
-        return SQLSession.getSqlConnector().getSqlWorker().getEntityList(new Warning(),
+    public List<WarningContainer> getWarnings(GuildContainer guildContainer) throws IllegalAccessException {
+        String guildId = guildContainer.getId();
+
+        List<Warning> warnings = SQLSession.getSqlConnector().getSqlWorker().getEntityList(new Warning(),
                 "FROM Warning WHERE guildId = :gid",
-                Map.of("gid", guildId)).stream().map(c -> new WarningContainer(c, new UserContainer(guildContainer.getGuild().retrieveMemberById(c.getUserId()).complete()))).toList();
+                Map.of("gid", guildId));
+
+        // Users that left the Guild have no profile and are only returned with their ID.
+        MemberResolution resolution = UserProfileCache.getMembers(guildContainer.getGuild(),
+                warnings.stream().map(warning -> String.valueOf(warning.getUserId())).toList());
+
+        return warnings.stream().map(warning -> new WarningContainer(warning, resolution.members().get(String.valueOf(warning.getUserId())))).toList();
     }
 
     public WarningContainer addWarnings(String sessionIdentifier, String guildId, String userId, String warnings) throws IllegalAccessException {
@@ -709,7 +933,11 @@ public class GuildService {
     //region Punishments
 
     public List<PunishmentContainer> getPunishments(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, false, true);
+        return getPunishments(sessionService.retrieveGuild(sessionIdentifier, guildId, false, true));
+    }
+
+    public List<PunishmentContainer> getPunishments(GuildContainer guildContainer) throws IllegalAccessException {
+        String guildId = guildContainer.getId();
 
         return SQLSession.getSqlConnector().getSqlWorker().getEntityList(new Punishments(),
                 "FROM Punishments WHERE guildId = :gid",
@@ -786,7 +1014,11 @@ public class GuildService {
     //region Custom Command
 
     public List<CustomCommandContainer> getCustomCommand(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, true, false);
+        return getCustomCommand(sessionService.retrieveGuild(sessionIdentifier, guildId, true, false));
+    }
+
+    public List<CustomCommandContainer> getCustomCommand(GuildContainer guildContainer) throws IllegalAccessException {
+        String guildId = guildContainer.getId();
 
         return SQLSession.getSqlConnector().getSqlWorker().getEntityList(new CustomCommand(),
                 "FROM CustomCommand WHERE guildId = :gid",
@@ -843,7 +1075,11 @@ public class GuildService {
     //region Reaction role
 
     public List<MessageReactionRoleContainer> retrieveReactionRoles(String sessionIdentifier, String guildId) throws IllegalAccessException {
-        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, true, true);
+        return retrieveReactionRoles(sessionService.retrieveGuild(sessionIdentifier, guildId, true, true));
+    }
+
+    public List<MessageReactionRoleContainer> retrieveReactionRoles(GuildContainer guildContainer) throws IllegalAccessException {
+        String guildId = guildContainer.getId();
 
         List<ReactionRole> roles = SQLSession.getSqlConnector().getSqlWorker().getEntityList(new ReactionRole(),
                 "FROM ReactionRole WHERE guildId = :gid",
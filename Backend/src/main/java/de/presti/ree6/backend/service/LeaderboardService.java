@@ -0,0 +1,177 @@
+package de.presti.ree6.backend.service;
+
+import de.presti.ree6.backend.bot.LeaderboardCache;
+import de.presti.ree6.backend.bot.LeaderboardRankIndex;
+import de.presti.ree6.backend.bot.LeaderboardSnapshot;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.container.LeaderboardPageContainer;
+import de.presti.ree6.backend.utils.data.container.LeaderboardRankContainer;
+import de.presti.ree6.backend.utils.data.container.LeaderboardType;
+import de.presti.ree6.backend.utils.data.container.guild.GuildContainer;
+import de.presti.ree6.sql.entities.level.ChatUserLevel;
+import de.presti.ree6.sql.entities.level.UserLevel;
+import de.presti.ree6.sql.entities.level.VoiceUserLevel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Service used to retrieve the Leaderboards of a Guild.
+ */
+@Service
+public class LeaderboardService {
+
+    private final SessionService sessionService;
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public LeaderboardService(SessionService sessionService, EntityManager entityManager) {
+        this.sessionService = sessionService;
+        this.entityManager = entityManager;
+    }
+
+    //region Page
+
+    public LeaderboardPageContainer getLeaderboardPage(String guildId, String type, String cursor, int size) throws IllegalAccessException {
+        if (size < 1 || size > Data.getLeaderboardPageLimit()) {
+            throw new IllegalAccessException("Invalid page size!");
+        }
+
+        LeaderboardType leaderboardType = parseType(type);
+        LeaderboardCursor position = cursor != null && !cursor.isBlank() ? LeaderboardCursor.decode(cursor) : null;
+
+        // Call this to check if guild exists. If not exception is thrown.
+        GuildContainer guildContainer = sessionService.retrieveGuild(guildId);
+
+        // One more entry than needed is requested to know if there is another page.
+        List<? extends UserLevel> userLevels = getUserLevels(leaderboardType, guildContainer.getId(), position, size + 1);
+        boolean hasNext = userLevels.size() > size;
+
+        if (hasNext) {
+            userLevels = userLevels.subList(0, size);
+        }
+
+        long startRank = position != null ? position.rank() + 1 : 1;
+        String nextCursor = null;
+
+        if (hasNext) {
+            UserLevel last = userLevels.get(userLevels.size() - 1);
+            nextCursor = new LeaderboardCursor(last.getExperience(), last.getUserId(), startRank + userLevels.size() - 1).encode();
+        }
+
+        return new LeaderboardPageContainer(guildContainer.getId(), leaderboardType, LeaderboardCache.resolveUserLevels(userLevels), startRank, nextCursor);
+    }
+
+    /**
+     * Retrieve the entries of a Leaderboard after a position, ordered by their experience and then by the User ID.
+     * The position is a key of that order, so the database never has to skip the previous pages.
+     *
+     * @param type     the type of the Leaderboard.
+     * @param guildId  the ID of the Guild.
+     * @param position the last entry of the previous page, {@code null} for the first page.
+     * @param limit    the maximal amount of entries.
+     * @return the entries.
+     */
+    private List<? extends UserLevel> getUserLevels(LeaderboardType type, String guildId, LeaderboardCursor position, int limit) {
+        return switch (type) {
+            case CHAT -> getUserLevels(ChatUserLevel.class, guildId, position, limit);
+            case VOICE -> getUserLevels(VoiceUserLevel.class, guildId, position, limit);
+        };
+    }
+
+    private <T extends UserLevel> List<T> getUserLevels(Class<T> entityClass, String guildId, LeaderboardCursor position, int limit) {
+        String query = "FROM " + entityClass.getSimpleName() + " WHERE guildId = :gid" +
+                (position != null ? " AND (experience < :xp OR (experience = :xp AND userId > :uid))" : "") +
+                " ORDER BY experience DESC, userId ASC";
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query, entityClass)
+                .setParameter("gid", guildId)
+                .setMaxResults(limit);
+
+        if (position != null) {
+            typedQuery.setParameter("xp", position.experience()).setParameter("uid", position.userId());
+        }
+
+        return typedQuery.getResultList();
+    }
+
+    //endregion
+
+    //region Snapshot
+
+    public LeaderboardSnapshot getSnapshot(String guildId, LeaderboardType type) throws IllegalAccessException {
+        // Call this to check if guild exists. If not exception is thrown.
+        GuildContainer guildContainer = sessionService.retrieveGuild(guildId);
+        return LeaderboardCache.getSnapshot(guildContainer.getId(), type);
+    }
+
+    //endregion
+
+    //region Rank
+
+    public LeaderboardRankContainer getRank(String guildId, String type, String userId, int neighbors) throws IllegalAccessException {
+        if (neighbors < 0 || neighbors > Data.getLeaderboardPageLimit()) {
+            throw new IllegalAccessException("Invalid neighbor count!");
+        }
+
+        LeaderboardType leaderboardType = parseType(type);
+
+        long user;
+
+        try {
+            user = Long.parseLong(userId);
+        } catch (NumberFormatException ignore) {
+            throw new IllegalAccessException("Invalid user id!");
+        }
+
+        // Call this to check if guild exists. If not exception is thrown.
+        GuildContainer guildContainer = sessionService.retrieveGuild(guildId);
+
+        LeaderboardRankContainer rank = LeaderboardRankIndex.getRank(guildContainer.getId(), leaderboardType, user, neighbors);
+
+        if (rank == null) {
+            throw new IllegalAccessException("User not found on the Leaderboard!");
+        }
+
+        return rank;
+    }
+
+    //endregion
+
+    private LeaderboardType parseType(String type) throws IllegalAccessException {
+        try {
+            return LeaderboardType.valueOf(type.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException ignore) {
+            throw new IllegalAccessException("Leaderboard not found!");
+        }
+    }
+
+    /**
+     * Position in a Leaderboard, handed to the client as an opaque cursor.
+     *
+     * @param experience the experience of the last entry.
+     * @param userId     the User ID of the last entry.
+     * @param rank       the rank of the last entry.
+     */
+    private record LeaderboardCursor(long experience, long userId, long rank) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString((experience + ":" + userId + ":" + rank).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static LeaderboardCursor decode(String cursor) throws IllegalAccessException {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+                return new LeaderboardCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ignore) {
+                throw new IllegalAccessException("Invalid cursor!");
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package de.presti.ree6.backend.service;
+
+import de.presti.ree6.backend.bot.MemberResolution;
+import de.presti.ree6.backend.bot.UserProfileCache;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.container.PunishmentContainer;
+import de.presti.ree6.backend.utils.data.container.PunishmentPageContainer;
+import de.presti.ree6.backend.utils.data.container.WarningContainer;
+import de.presti.ree6.backend.utils.data.container.WarningPageContainer;
+import de.presti.ree6.backend.utils.data.container.guild.GuildContainer;
+import de.presti.ree6.backend.utils.data.container.role.RoleContainer;
+import de.presti.ree6.sql.entities.Punishments;
+import de.presti.ree6.sql.entities.Warning;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Role;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Service used to page through the Warnings and Punishments of a Guild.
+ * Only the members and roles of the requested page are resolved, so the time of a request does not grow with the history of the Guild.
+ */
+@Service
+public class ModerationService {
+
+    private final SessionService sessionService;
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public ModerationService(SessionService sessionService, EntityManager entityManager) {
+        this.sessionService = sessionService;
+        this.entityManager = entityManager;
+    }
+
+    //region Warnings
+
+    public WarningPageContainer getWarningPage(String sessionIdentifier, String guildId, String sort, String cursor, int size,
+                                               Integer minWarnings, String userId) throws IllegalAccessException {
+        checkSize(size);
+
+        WarningSort warningSort = parseSort(sort);
+        PageCursor position = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor, warningSort.name()) : null;
+        Long user = userId != null && !userId.isBlank() ? parseId(userId) : null;
+
+        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, false, false);
+
+        // One more entry than needed is requested to know if there is another page.
+        List<Warning> warnings = getWarnings(guildContainer.getId(), warningSort, position, size + 1, minWarnings, user);
+        boolean hasNext = warnings.size() > size;
+
+        if (hasNext) {
+            warnings = warnings.subList(0, size);
+        }
+
+        MemberResolution resolution = UserProfileCache.getMembers(guildContainer.getGuild(),
+                warnings.stream().map(warning -> String.valueOf(warning.getUserId())).toList());
+
+        List<WarningContainer> entries = warnings.stream()
+                .map(warning -> new WarningContainer(warning, resolution.members().get(String.valueOf(warning.getUserId())))).toList();
+
+        String nextCursor = null;
+
+        if (hasNext) {
+            Warning last = warnings.get(warnings.size() - 1);
+            nextCursor = new PageCursor(warningSort.name(), last.getWarnings(), last.getUserId()).encode();
+        }
+
+        return new WarningPageContainer(entries, resolution.unresolved(), nextCursor);
+    }
+
+    /**
+     * Retrieve the Warnings of a Guild after a position of the given order.
+     * The position is a key of that order, so the database never has to skip the previous pages.
+     *
+     * @param guildId     the ID of the Guild.
+     * @param sort        the order.
+     * @param position    the last entry of the previous page, {@code null} for the first page.
+     * @param limit       the maximal amount of entries.
+     * @param minWarnings the minimal amount of warnings, {@code null} for no minimum.
+     * @param userId      the ID of the only User to include, {@code null} for every User.
+     * @return the Warnings.
+     */
+    private List<Warning> getWarnings(String guildId, WarningSort sort, PageCursor position, int limit, Integer minWarnings, Long userId) {
+        StringBuilder query = new StringBuilder("FROM Warning WHERE guildId = :gid");
+
+        if (minWarnings != null) query.append(" AND warnings >= :min");
+        if (userId != null) query.append(" AND userId = :uid");
+
+        if (position != null) {
+            query.append(switch (sort) {
+                case WARNINGS -> " AND (warnings < :count OR (warnings = :count AND userId > :last))";
+                case USER -> " AND userId > :last";
+            });
+        }
+
+        query.append(switch (sort) {
+            case WARNINGS -> " ORDER BY warnings DESC, userId ASC";
+            case USER -> " ORDER BY userId ASC";
+        });
+
+        TypedQuery<Warning> typedQuery = entityManager.createQuery(query.toString(), Warning.class)
+                .setParameter("gid", guildId)
+                .setMaxResults(limit);
+
+        if (minWarnings != null) typedQuery.setParameter("min", minWarnings);
+        if (userId != null) typedQuery.setParameter("uid", userId);
+
+        if (position != null) {
+            if (sort == WarningSort.WARNINGS) typedQuery.setParameter("count", (int) position.count());
+            typedQuery.setParameter("last", position.id());
+        }
+
+        return typedQuery.getResultList();
+    }
+
+    //endregion
+
+    //region Punishments
+
+    public PunishmentPageContainer getPunishmentPage(String sessionIdentifier, String guildId, String cursor, int size, Integer minWarnings) throws IllegalAccessException {
+        checkSize(size);
+
+        PageCursor position = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor, "PUNISHMENTS") : null;
+
+        // The roles are not needed for the check, only the ones of the page are resolved.
+        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId, false, false);
+
+        String query = "FROM Punishments WHERE guildId = :gid" +
+                (minWarnings != null ? " AND warnings >= :min" : "") +
+                (position != null ? " AND (warnings > :count OR (warnings = :count AND id > :last))" : "") +
+                " ORDER BY warnings ASC, id ASC";
+
+        TypedQuery<Punishments> typedQuery = entityManager.createQuery(query, Punishments.class)
+                .setParameter("gid", guildContainer.getId())
+                .setMaxResults(size + 1);
+
+        if (minWarnings != null) typedQuery.setParameter("min", minWarnings);
+
+        if (position != null) {
+            typedQuery.setParameter("count", (int) position.count()).setParameter("last", position.id());
+        }
+
+        List<Punishments> punishments = typedQuery.getResultList();
+        boolean hasNext = punishments.size() > size;
+
+        if (hasNext) {
+            punishments = punishments.subList(0, size);
+        }
+
+        Guild guild = guildContainer.getGuild();
+        List<PunishmentContainer> entries = new ArrayList<>(punishments.size());
+
+        for (Punishments punishment : punishments) {
+            PunishmentContainer punishmentContainer = new PunishmentContainer(punishment);
+            Role role = guild != null && punishment.getRoleId() != 0 ? guild.getRoleById(punishment.getRoleId()) : null;
+
+            if (role != null) {
+                punishmentContainer.setRole(new RoleContainer(role));
+            }
+
+            entries.add(punishmentContainer);
+        }
+
+        String nextCursor = null;
+
+        if (hasNext) {
+            Punishments last = punishments.get(punishments.size() - 1);
+            nextCursor = new PageCursor("PUNISHMENTS", last.getWarnings(), last.getId()).encode();
+        }
+
+        return new PunishmentPageContainer(entries, nextCursor);
+    }
+
+    //endregion
+
+    private void checkSize(int size) throws IllegalAccessException {
+        if (size < 1 || size > Data.getModerationPageLimit()) {
+            throw new IllegalAccessException("Invalid page size!");
+        }
+    }
+
+    private WarningSort parseSort(String sort) throws IllegalAccessException {
+        if (sort == null || sort.isBlank()) return WarningSort.WARNINGS;
+
+        try {
+            return WarningSort.valueOf(sort.trim().toUpperCase());
+        } catch (IllegalArgumentException ignore) {
+            throw new IllegalAccessException("Sort not supported!");
+        }
+    }
+
+    private long parseId(String id) throws IllegalAccessException {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException ignore) {
+            throw new IllegalAccessException("Invalid user id!");
+        }
+    }
+
+    /**
+     * The orders of the Warnings.
+     */
+    private enum WarningSort {
+        /**
+         * Most warnings first, then by the User ID.
+         */
+        WARNINGS,
+        /**
+         * By the User ID.
+         */
+        USER
+    }
+
+    /**
+     * Position in a list, handed to the client as an opaque cursor.
+     *
+     * @param order the order the cursor belongs to, a cursor can't be used with another order.
+     * @param count the amount of warnings of the last entry.
+     * @param id    the ID of the last entry.
+     */
+    private record PageCursor(String order, long count, long id) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString((order + ":" + count + ":" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String cursor, String order) throws IllegalAccessException {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+
+                if (!parts[0].equals(order))
+                    throw new IllegalAccessException("Invalid cursor!");
+
+                return new PageCursor(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ignore) {
+                throw new IllegalAccessException("Invalid cursor!");
+            }
+        }
+    }
+}
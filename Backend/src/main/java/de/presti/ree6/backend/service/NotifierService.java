@@ -0,0 +1,506 @@
+package de.presti.ree6.backend.service;
+
+import com.google.gson.stream.JsonWriter;
+import de.presti.ree6.backend.bot.WebhookCache;
+import de.presti.ree6.backend.utils.RandomUtils;
+import de.presti.ree6.backend.utils.ThreadUtil;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.cache.ExpiringCache;
+import de.presti.ree6.backend.utils.data.container.NotifierContainer;
+import de.presti.ree6.backend.utils.data.container.NotifierImportContainer;
+import de.presti.ree6.backend.utils.data.container.NotifierPlatform;
+import de.presti.ree6.backend.utils.data.container.api.NotifierImportRequest;
+import de.presti.ree6.backend.utils.data.container.guild.GuildContainer;
+import de.presti.ree6.sql.entities.webhook.*;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildMessageChannel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Service used to import and export the Notifiers of a Guild in bulk.
+ */
+@Slf4j
+@Service
+public class NotifierService {
+
+    /**
+     * The name of the Webhook that is shared by every imported Notifier of a channel.
+     */
+    private static final String NOTIFIER_WEBHOOK_NAME = "Ree6-Notifier";
+
+    /**
+     * The columns of the CSV format, in their order.
+     */
+    private static final String[] CSV_HEADER = {"platform", "channelId", "name", "message"};
+
+    /**
+     * After how many inserted rows the persistence context is flushed.
+     */
+    private static final int BATCH_SIZE = 50;
+
+    private final SessionService sessionService;
+
+    private final GuildService guildService;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The progress of the running and recently finished imports, keyed by their ID.
+     */
+    private final ExpiringCache<String, NotifierImportContainer> imports =
+            new ExpiringCache<>("notifier-imports", 1000, Duration.ofHours(1), null);
+
+    /**
+     * The ID of the running import of every Guild, keyed by the Guild ID.
+     */
+    private final Map<String, String> runningImports = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NotifierService(SessionService sessionService, GuildService guildService, EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.sessionService = sessionService;
+        this.guildService = guildService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    //region Import
+
+    public NotifierImportContainer importNotifiers(String sessionIdentifier, String guildId, String csv) throws IllegalAccessException {
+        return importNotifiers(sessionIdentifier, guildId, parseCsv(csv));
+    }
+
+    public NotifierImportContainer importNotifiers(String sessionIdentifier, String guildId, List<NotifierImportRequest> requests) throws IllegalAccessException {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("No Notifiers to import!");
+        }
+
+        if (requests.size() > Data.getNotifierImportLimit()) {
+            throw new IllegalArgumentException("Too many Notifiers, the limit is " + Data.getNotifierImportLimit() + "!");
+        }
+
+        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
+        Guild guild = guildContainer.getGuild();
+
+        NotifierImportContainer importContainer = new NotifierImportContainer(RandomUtils.randomString(16), guildId, requests.size());
+
+        if (runningImports.putIfAbsent(guildId, importContainer.getId()) != null) {
+            throw new IllegalAccessException("There is already an import running for this Guild!");
+        }
+
+        imports.put(importContainer.getId(), importContainer);
+
+        ThreadUtil.createTask(() -> {
+            try {
+                runImport(importContainer, guild, requests);
+            } catch (Exception exception) {
+                log.error("Could not import the Notifiers of {}!", guildId, exception);
+                importContainer.getErrors().add(exception.getMessage());
+                importContainer.setState("FAILED");
+            } finally {
+                runningImports.remove(guildId, importContainer.getId());
+            }
+            return null;
+        });
+
+        return importContainer;
+    }
+
+    public NotifierImportContainer getImport(String sessionIdentifier, String guildId, String importId) throws IllegalAccessException {
+        sessionService.retrieveGuild(sessionIdentifier, guildId);
+
+        NotifierImportContainer importContainer = imports.get(importId);
+
+        if (importContainer == null || !importContainer.getGuildId().equals(guildId)) {
+            throw new IllegalAccessException("Import not found!");
+        }
+
+        return importContainer;
+    }
+
+    private void runImport(NotifierImportContainer importContainer, Guild guild, List<NotifierImportRequest> requests) {
+        importContainer.setState("VALIDATING");
+
+        Map<NotifierPlatform, Set<String>> names = new EnumMap<>(NotifierPlatform.class);
+        Map<StandardGuildMessageChannel, List<NotifierImportRequest>> channels = new LinkedHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            NotifierImportRequest request = requests.get(i);
+            NotifierPlatform platform = parsePlatform(request.platform());
+            StandardGuildMessageChannel channel = request.channelId() != null && !request.channelId().isBlank() ?
+                    guild.getChannelById(StandardGuildMessageChannel.class, request.channelId().trim()) : null;
+
+            String error = null;
+
+            if (platform == null) {
+                error = "Platform not found!";
+            } else if (channel == null) {
+                error = "Channel not found!";
+            } else if (request.name() == null || request.name().isBlank()) {
+                error = "Name is missing!";
+            } else if (!names.computeIfAbsent(platform, key -> getNotifierNames(key, guild.getId())).add(request.name().trim().toLowerCase())) {
+                error = "Notifier already exists!";
+            }
+
+            if (error != null) {
+                skip(importContainer, 1, "Entry " + (i + 1) + ": " + error);
+                continue;
+            }
+
+            channels.computeIfAbsent(channel, key -> new ArrayList<>()).add(request);
+        }
+
+        importContainer.setState("CREATING_WEBHOOKS");
+
+        Map<String, net.dv8tion.jda.api.entities.Webhook> webhooks = WebhookCache.getWebhooks(guild);
+        List<net.dv8tion.jda.api.entities.Webhook> createdWebhooks = new ArrayList<>();
+        List<Webhook> rows = new ArrayList<>();
+
+        for (Map.Entry<StandardGuildMessageChannel, List<NotifierImportRequest>> entry : channels.entrySet()) {
+            net.dv8tion.jda.api.entities.Webhook webhook;
+
+            try {
+                webhook = getNotifierWebhook(importContainer, entry.getKey(), webhooks, createdWebhooks);
+            } catch (Exception exception) {
+                skip(importContainer, entry.getValue().size(), "Channel " + entry.getKey().getId() + ": " + exception.getMessage());
+                continue;
+            }
+
+            for (NotifierImportRequest request : entry.getValue()) {
+                rows.add(createEntity(parsePlatform(request.platform()), guild.getId(), webhook, request.name().trim(), request.message()));
+            }
+        }
+
+        if (importContainer.getWebhooksCreated() > 0) {
+            WebhookCache.invalidate(guild.getIdLong());
+        }
+
+        importContainer.setState("WRITING");
+
+        int processed = importContainer.getProcessed();
+
+        // All rows are written in one transaction, so a failing row doesn't leave a partial import behind.
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < rows.size(); i++) {
+                    entityManager.persist(rows.get(i));
+
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+
+                    importContainer.setProcessed(processed + i + 1);
+                }
+            });
+        } catch (RuntimeException exception) {
+            // Nothing refers to the Webhooks created for the import anymore, so they are removed again.
+            deleteWebhooks(guild, createdWebhooks);
+            throw exception;
+        }
+
+        importContainer.setCreated(rows.size());
+        importContainer.setState("COMPLETED");
+    }
+
+    private void skip(NotifierImportContainer importContainer, int amount, String error) {
+        importContainer.getErrors().add(error);
+        importContainer.setSkipped(importContainer.getSkipped() + amount);
+        importContainer.setProcessed(importContainer.getProcessed() + amount);
+    }
+
+    private Set<String> getNotifierNames(NotifierPlatform platform, String guildId) {
+        return guildService.loadNotifiers(platform, guildId).stream().map(NotifierContainer::getName)
+                .filter(Objects::nonNull).map(String::toLowerCase).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    /**
+     * Get the Webhook shared by the Notifiers of a channel, it will only be created if the channel doesn't have one yet.
+     *
+     * @param importContainer the import, used to count the created Webhooks.
+     * @param channel         the channel.
+     * @param webhooks        the Webhooks of the Guild.
+     * @param createdWebhooks the Webhooks created by the import, a new Webhook is added to it.
+     * @return the Webhook.
+     */
+    private net.dv8tion.jda.api.entities.Webhook getNotifierWebhook(NotifierImportContainer importContainer, StandardGuildMessageChannel channel,
+                                                                    Map<String, net.dv8tion.jda.api.entities.Webhook> webhooks,
+                                                                    List<net.dv8tion.jda.api.entities.Webhook> createdWebhooks) {
+        for (net.dv8tion.jda.api.entities.Webhook webhook : webhooks.values()) {
+            // Webhooks without a token were not created by us and can't be used.
+            if (webhook.getToken() != null && NOTIFIER_WEBHOOK_NAME.equals(webhook.getName()) &&
+                    webhook.getChannel().getIdLong() == channel.getIdLong()) {
+                return webhook;
+            }
+        }
+
+        net.dv8tion.jda.api.entities.Webhook webhook = channel.createWebhook(NOTIFIER_WEBHOOK_NAME).complete();
+        createdWebhooks.add(webhook);
+        importContainer.setWebhooksCreated(importContainer.getWebhooksCreated() + 1);
+        return webhook;
+    }
+
+    /**
+     * Delete the Webhooks created by an import whose rows could not be written.
+     *
+     * @param guild           the Guild.
+     * @param createdWebhooks the Webhooks created by the import.
+     */
+    private void deleteWebhooks(Guild guild, List<net.dv8tion.jda.api.entities.Webhook> createdWebhooks) {
+        if (createdWebhooks.isEmpty()) return;
+
+        for (net.dv8tion.jda.api.entities.Webhook webhook : createdWebhooks) {
+            try {
+                webhook.delete().complete();
+            } catch (Exception exception) {
+                log.warn("Could not delete the Webhook {} of a failed import!", webhook.getId(), exception);
+            }
+        }
+
+        WebhookCache.invalidate(guild.getIdLong());
+    }
+
+    private Webhook createEntity(NotifierPlatform platform, String guildId, net.dv8tion.jda.api.entities.Webhook webhook, String name, String message) {
+        Webhook entity = switch (platform) {
+            case REDDIT -> {
+                WebhookReddit reddit = new WebhookReddit();
+                reddit.setSubreddit(name);
+                reddit.setMessage(message);
+                yield reddit;
+            }
+            case TWITCH -> {
+                WebhookTwitch twitch = new WebhookTwitch();
+                twitch.setName(name);
+                twitch.setMessage(message);
+                yield twitch;
+            }
+            case TWITTER -> {
+                WebhookTwitter twitter = new WebhookTwitter();
+                twitter.setName(name);
+                twitter.setMessage(message);
+                yield twitter;
+            }
+            case YOUTUBE -> {
+                WebhookYouTube youtube = new WebhookYouTube();
+                youtube.setName(name);
+                youtube.setMessage(message);
+                yield youtube;
+            }
+            case INSTAGRAM -> {
+                WebhookInstagram instagram = new WebhookInstagram();
+                instagram.setName(name);
+                instagram.setMessage(message);
+                yield instagram;
+            }
+        };
+
+        entity.setGuildId(guildId);
+        entity.setChannelId(webhook.getChannel().getIdLong());
+        entity.setWebhookId(webhook.getId());
+        entity.setToken(webhook.getToken());
+        return entity;
+    }
+
+    private NotifierPlatform parsePlatform(String platform) {
+        if (platform == null) return null;
+
+        try {
+            return NotifierPlatform.valueOf(platform.trim().toUpperCase());
+        } catch (IllegalArgumentException ignore) {
+            return null;
+        }
+    }
+
+    //endregion
+
+    //region Export
+
+    public StreamingResponseBody exportNotifiers(String sessionIdentifier, String guildId, boolean csv) throws IllegalAccessException {
+        GuildContainer guildContainer = sessionService.retrieveGuild(sessionIdentifier, guildId);
+        Guild guild = guildContainer.getGuild();
+
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            JsonWriter jsonWriter = csv ? null : new JsonWriter(writer);
+
+            if (csv) {
+                writeCsvLine(writer, CSV_HEADER);
+            } else {
+                jsonWriter.beginArray();
+            }
+
+            // One platform after another, so only the rows of a single platform are held in memory.
+            for (NotifierPlatform platform : NotifierPlatform.values()) {
+                List<NotifierContainer> notifiers = guildService.resolveNotifierChannels(guildService.loadNotifiers(platform, guildId), guild);
+
+                for (NotifierContainer notifier : notifiers) {
+                    String channelId = notifier.getChannel() != null ? notifier.getChannel().getId() : null;
+
+                    if (csv) {
+                        writeCsvLine(writer, new String[]{platform.name(), channelId, notifier.getName(), notifier.getMessage()});
+                    } else {
+                        jsonWriter.beginObject()
+                                .name("platform").value(platform.name())
+                                .name("channelId").value(channelId)
+                                .name("name").value(notifier.getName())
+                                .name("message").value(notifier.getMessage())
+                                .endObject();
+                    }
+                }
+
+                writer.flush();
+            }
+
+            if (csv) {
+                writer.flush();
+            } else {
+                jsonWriter.endArray();
+                jsonWriter.flush();
+            }
+        };
+    }
+
+    //endregion
+
+    //region CSV
+
+    private List<NotifierImportRequest> parseCsv(String csv) {
+        if (csv == null || csv.isBlank()) {
+            throw new IllegalArgumentException("No Notifiers to import!");
+        }
+
+        List<List<String>> records = readCsv(csv);
+
+        if (records.isEmpty() || records.get(0).size() < CSV_HEADER.length) {
+            throw new IllegalArgumentException("Invalid CSV header, expected: " + String.join(",", CSV_HEADER));
+        }
+
+        List<String> header = records.get(0).stream().map(column -> column.trim().toLowerCase()).toList();
+        int[] columns = new int[CSV_HEADER.length];
+
+        for (int i = 0; i < CSV_HEADER.length; i++) {
+            columns[i] = header.indexOf(CSV_HEADER[i].toLowerCase());
+
+            if (columns[i] == -1) {
+                throw new IllegalArgumentException("Invalid CSV header, expected: " + String.join(",", CSV_HEADER));
+            }
+        }
+
+        List<NotifierImportRequest> requests = new ArrayList<>(records.size() - 1);
+
+        for (List<String> record : records.subList(1, records.size())) {
+            // Skip empty lines.
+            if (record.size() == 1 && record.get(0).isBlank()) continue;
+
+            requests.add(new NotifierImportRequest(getColumn(record, columns[0]), getColumn(record, columns[1]),
+                    getColumn(record, columns[2]), getColumn(record, columns[3])));
+        }
+
+        return requests;
+    }
+
+    private String getColumn(List<String> record, int column) {
+        return column < record.size() ? record.get(column) : null;
+    }
+
+    /**
+     * Read a RFC 4180 CSV document, quoted values may contain commas, quotes and line breaks.
+     *
+     * @param csv the CSV document.
+     * @return the records of the document.
+     * @throws IllegalArgumentException if a quoted value is not closed.
+     */
+    private List<List<String>> readCsv(String csv) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> record = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < csv.length(); i++) {
+            char current = csv.charAt(i);
+
+            if (quoted) {
+                if (current == '"') {
+                    if (i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    value.append(current);
+                }
+            } else if (current == '"') {
+                quoted = true;
+            } else if (current == ',') {
+                record.add(value.toString());
+                value.setLength(0);
+            } else if (current == '\n' || current == '\r') {
+                if (current == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') i++;
+
+                record.add(value.toString());
+                value.setLength(0);
+                records.add(record);
+                record = new ArrayList<>();
+            } else {
+                value.append(current);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Invalid CSV, a quoted value is not closed!");
+        }
+
+        if (!value.isEmpty() || !record.isEmpty()) {
+            record.add(value.toString());
+            records.add(record);
+        }
+
+        return records;
+    }
+
+    private void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+
+            String value = values[i];
+            if (value == null) continue;
+
+            if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+
+        writer.write("\r\n");
+    }
+
+    //endregion
+}
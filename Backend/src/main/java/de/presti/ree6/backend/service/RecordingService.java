@@ -0,0 +1,512 @@
+package de.presti.ree6.backend.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import de.presti.ree6.backend.bot.BotWorker;
+import de.presti.ree6.backend.bot.PermissionIndex;
+import de.presti.ree6.backend.utils.ThreadUtil;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.cache.ExpiringCache;
+import de.presti.ree6.backend.utils.data.container.RecordContainer;
+import de.presti.ree6.backend.utils.data.container.SessionContainer;
+import de.presti.ree6.backend.utils.data.recording.FileRecordingStore;
+import de.presti.ree6.backend.utils.data.recording.RecordingDownload;
+import de.presti.ree6.backend.utils.data.recording.RecordingFormat;
+import de.presti.ree6.backend.utils.data.recording.RecordingMetadata;
+import de.presti.ree6.backend.utils.data.recording.RecordingStore;
+import de.presti.ree6.backend.utils.data.recording.SqlRecordingStore;
+import de.presti.ree6.backend.utils.data.recording.SweepResult;
+import de.presti.ree6.backend.utils.data.recording.TranscodeCache;
+import de.presti.ree6.sql.entities.Recording;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Guild;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service used to stream the audio of Recordings.
+ * The audio is served from the file store if it is enabled and holds the Recording, otherwise from the database.
+ * Other formats than WAV are converted into the {@link TranscodeCache} on the first download and always served from it.
+ * Recordings are deleted once they have been downloaded completely, unless this is disabled, and otherwise when they expire.
+ */
+@Slf4j
+@Service
+public class RecordingService {
+
+    private static final LongAdder sweeps = new LongAdder();
+
+    private static final LongAdder purgedRecordings = new LongAdder();
+
+    private static final LongAdder sweepMillis = new LongAdder();
+
+    private final SessionService sessionService;
+
+    private final EntityManager entityManager;
+
+    private final DataSource dataSource;
+
+    /**
+     * Everything but the audio of Recordings, so access checks don't need the database.
+     * Recordings never change after they have been written, so entries only leave the cache when they expire or are deleted.
+     */
+    private final ExpiringCache<String, RecordingMetadata> metadataCache =
+            new ExpiringCache<>("recording-metadata", Data.getRecordingCacheSize(), Data.getRecordingCacheTtl(), null);
+
+    /**
+     * The store of the audio written by the Bot, always available.
+     */
+    private final SqlRecordingStore sqlStore;
+
+    /**
+     * The store on the local disk, {@code null} if it is disabled.
+     */
+    private final FileRecordingStore fileStore;
+
+    /**
+     * The converted Recordings.
+     */
+    private final TranscodeCache transcodeCache;
+
+    /**
+     * The statement used to delete a Recording.
+     */
+    private final String deleteQuery;
+
+    /**
+     * The statement used to read the identifiers of every Recording.
+     */
+    private final String identifierQuery;
+
+    /**
+     * The statement used to read the identifiers of expired Recordings.
+     */
+    private final String expiredQuery;
+
+    /**
+     * The start of the statement used to delete a batch of Recordings, the placeholders are added per batch.
+     */
+    private final String bulkDeleteQuery;
+
+    @Autowired
+    public RecordingService(SessionService sessionService, EntityManager entityManager, DataSource dataSource) throws IOException {
+        this.sessionService = sessionService;
+        this.entityManager = entityManager;
+        this.dataSource = dataSource;
+
+        // The audio can only be read partially with plain SQL, so the names are taken from the entity mapping.
+        AbstractEntityPersister persister = (AbstractEntityPersister) entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel().getEntityDescriptor(Recording.class);
+        String table = persister.getTableName();
+        String identifierColumn = persister.getPropertyColumnNames("identifier")[0];
+
+        sqlStore = new SqlRecordingStore(dataSource, table, persister.getPropertyColumnNames("recording")[0], identifierColumn);
+        fileStore = Data.isRecordingFileStore() ? new FileRecordingStore(Data.getRecordingPath()) : null;
+        transcodeCache = new TranscodeCache(Data.getRecordingPath().resolve("transcodes"));
+
+        deleteQuery = "DELETE FROM " + table + " WHERE " + identifierColumn + " = ?";
+        identifierQuery = "SELECT " + identifierColumn + " FROM " + table;
+        expiredQuery = "SELECT " + identifierColumn + " FROM " + table + " WHERE " + persister.getPropertyColumnNames("creation")[0] + " < ?";
+        bulkDeleteQuery = "DELETE FROM " + table + " WHERE " + identifierColumn + " IN ";
+    }
+
+    //region Access
+
+    /**
+     * Get the Recording of a User, without its audio.
+     *
+     * @param sessionIdentifier the identifier of the Session.
+     * @param recordId          the identifier of the Recording.
+     * @return the Recording.
+     * @throws IllegalAccessException if the Recording does not exist or the User may not access it.
+     */
+    public RecordContainer getRecordingContainer(String sessionIdentifier, String recordId) throws IllegalAccessException {
+        RecordingMetadata metadata = getMetadata(recordId);
+        checkAccess(sessionIdentifier, metadata);
+        return new RecordContainer(metadata);
+    }
+
+    /**
+     * Get everything but the audio of a Recording.
+     *
+     * @param recordId the identifier of the Recording.
+     * @return the metadata.
+     * @throws IllegalAccessException if the Recording does not exist.
+     */
+    private RecordingMetadata getMetadata(String recordId) throws IllegalAccessException {
+        RecordingMetadata metadata;
+
+        try {
+            metadata = metadataCache.get(recordId, this::loadMetadata);
+        } catch (Exception exception) {
+            throw new IllegalStateException("Could not read the Recording!", exception);
+        }
+
+        if (metadata == null)
+            throw new IllegalAccessException("Recording not found!");
+
+        return metadata;
+    }
+
+    /**
+     * Load everything but the audio of a Recording from the database.
+     *
+     * @param recordId the identifier of the Recording.
+     * @return the metadata, {@code null} if the Recording does not exist.
+     */
+    private RecordingMetadata loadMetadata(String recordId) {
+        List<Object[]> rows = entityManager.createQuery("SELECT r.guildId, r.voiceId, r.creatorId, r.creation, r.jsonArray FROM Recording r WHERE r.identifier = :id", Object[].class)
+                .setParameter("id", recordId)
+                .getResultList();
+
+        if (rows.isEmpty()) return null;
+
+        Object[] row = rows.get(0);
+        Set<String> participants = new HashSet<>();
+
+        for (JsonElement element : (JsonArray) row[4]) {
+            if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isString()) {
+                participants.add(element.getAsString());
+            }
+        }
+
+        return new RecordingMetadata(recordId, (String) row[0], (String) row[1], (String) row[2], (Long) row[3], Set.copyOf(participants));
+    }
+
+    /**
+     * Check if the User of a Session has been part of a Recording and is still a member of its Guild.
+     * The membership is checked with the cache of the Bot instead of the Guild list of the User.
+     *
+     * @param sessionIdentifier the identifier of the Session.
+     * @param metadata          the Recording.
+     * @throws IllegalAccessException if the User has not been part of the Recording or its Guild.
+     */
+    private void checkAccess(String sessionIdentifier, RecordingMetadata metadata) throws IllegalAccessException {
+        SessionContainer sessionContainer = sessionService.retrieveSession(sessionIdentifier);
+        String userId = sessionContainer.getUser().getId();
+
+        Guild guild = BotWorker.getShardManager().getGuildById(metadata.guildId());
+
+        if (guild == null || !PermissionIndex.isMember(guild, userId))
+            throw new IllegalAccessException("You were not part of the Guild this recording was made in!");
+
+        if (!metadata.isParticipant(userId))
+            throw new IllegalAccessException("You were not part of this recording.");
+    }
+
+    //endregion
+
+    //region Download
+
+    /**
+     * Check if the User of a Session may download a Recording and get the size of the download.
+     * Only the metadata is loaded, other formats than WAV are converted if they are not cached yet.
+     *
+     * @param sessionIdentifier the identifier of the Session.
+     * @param recordId          the identifier of the Recording.
+     * @param format            the name of the format, {@code null} for WAV.
+     * @return the download.
+     * @throws IllegalAccessException if the Recording does not exist or the User may not download it.
+     */
+    public RecordingDownload getDownload(String sessionIdentifier, String recordId, String format) throws IllegalAccessException {
+        RecordingFormat recordingFormat = parseFormat(format);
+        checkAccess(sessionIdentifier, getMetadata(recordId));
+
+        try {
+            long length = getStore(recordId).getLength(recordId);
+
+            if (length < 0)
+                throw new IllegalAccessException("Recording not found!");
+
+            if (recordingFormat != RecordingFormat.WAV) {
+                RecordingStore store = getStore(recordId);
+                long sourceLength = length;
+
+                // The conversion is done before the download starts, so its size is known and ranges can be requested.
+                length = transcodeCache.convert(recordId, recordingFormat, source -> store.transfer(recordId, 0, sourceLength - 1, source));
+            }
+
+            return new RecordingDownload(recordId, recordingFormat, length);
+        } catch (IOException exception) {
+            throw new IllegalStateException("Could not read the Recording!", exception);
+        }
+    }
+
+    /**
+     * Write a range of a download.
+     *
+     * @param download     the download.
+     * @param start        the first byte, starting at zero.
+     * @param end          the last byte, inclusive.
+     * @param outputStream the stream to write to.
+     * @throws IOException if the audio could not be read or written.
+     */
+    public void streamRecording(RecordingDownload download, long start, long end, OutputStream outputStream) throws IOException {
+        if (download.format() == RecordingFormat.WAV) {
+            getStore(download.recordId()).transfer(download.recordId(), start, end, outputStream);
+        } else {
+            transcodeCache.transfer(download.recordId(), download.format(), start, end, outputStream);
+        }
+    }
+
+    /**
+     * Delete a Recording and its audio without loading it.
+     *
+     * @param recordId the identifier of the Recording.
+     */
+    public void deleteRecording(String recordId) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(deleteQuery)) {
+            statement.setString(1, recordId);
+            statement.executeUpdate();
+            metadataCache.invalidate(recordId);
+
+            if (fileStore != null) {
+                fileStore.delete(recordId);
+            }
+
+            transcodeCache.delete(recordId);
+        } catch (SQLException | IOException exception) {
+            log.error("Could not delete the Recording {}!", recordId, exception);
+        }
+    }
+
+    /**
+     * Get the store that holds the audio of a Recording.
+     *
+     * @param recordId the identifier of the Recording.
+     * @return the file store if it holds the audio, otherwise the database.
+     * @throws IOException if the file store could not be read.
+     */
+    private RecordingStore getStore(String recordId) throws IOException {
+        return fileStore != null && fileStore.getLength(recordId) >= 0 ? fileStore : sqlStore;
+    }
+
+    private RecordingFormat parseFormat(String format) throws IllegalAccessException {
+        if (format == null || format.isBlank()) return RecordingFormat.WAV;
+
+        try {
+            return RecordingFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException ignore) {
+            throw new IllegalAccessException("Format not supported!");
+        }
+    }
+
+    //endregion
+
+    //region Migration
+
+    /**
+     * Start moving the audio into the file store in the background, if it is enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startMigration() {
+        if (fileStore == null || !Data.isRecordingMigrationEnabled()) return;
+
+        ThreadUtil.createNewThread(x -> {
+            try {
+                migrateRecordings(Data.getRecordingMigrationBatchSize());
+            } catch (Exception exception) {
+                log.error("Recording migration failed!", exception);
+            }
+        }, throwable -> log.error("Recording migration stopped!", throwable), Data.getRecordingMigrationInterval(), true, true);
+    }
+
+    /**
+     * Move the audio of Recordings from the database into the file store.
+     * The audio is only removed from the database once the file has been written completely.
+     *
+     * @param limit the maximal amount of Recordings to move.
+     * @return the amount of moved Recordings.
+     * @throws IOException if the database could not be read.
+     */
+    public synchronized int migrateRecordings(int limit) throws IOException {
+        if (fileStore == null) return 0;
+
+        int migrated = 0;
+        long bytes = 0;
+
+        for (String recordId : sqlStore.getStoredRecordings(limit)) {
+            try {
+                long length = sqlStore.getLength(recordId);
+                if (length <= 0) continue;
+
+                long stored = fileStore.store(recordId, outputStream -> sqlStore.transfer(recordId, 0, length - 1, outputStream));
+
+                if (stored != length) {
+                    fileStore.delete(recordId);
+                    log.warn("Recording {} changed while it was moved, it will be moved again with the next run.", recordId);
+                    continue;
+                }
+
+                sqlStore.delete(recordId);
+                migrated++;
+                bytes += length;
+            } catch (IOException exception) {
+                log.warn("Could not move the Recording {} into the file store!", recordId, exception);
+            }
+        }
+
+        if (migrated > 0) {
+            log.info("Moved {} Recordings ({} bytes) into the file store.", migrated, bytes);
+        }
+
+        return migrated;
+    }
+
+    //endregion
+
+    //region Expiry
+
+    /**
+     * Start deleting expired Recordings in the background.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSweep() {
+        ThreadUtil.createNewThread(x -> {
+            try {
+                sweepExpiredRecordings(Data.getRecordingMaxAge().toMillis(), Data.getRecordingSweepBatchSize());
+                cleanUpFiles();
+            } catch (Exception exception) {
+                log.error("Recording sweep failed!", exception);
+            }
+        }, throwable -> log.error("Recording sweep stopped!", throwable), Data.getRecordingSweepInterval(), true, true);
+    }
+
+    /**
+     * Delete every Recording that is older than the given age.
+     * Only the identifiers are read, the audio is never loaded. The Recordings are deleted in batches,
+     * so a single statement never locks more than one batch of rows.
+     *
+     * @param maxAge    the age in milliseconds after which a Recording is deleted.
+     * @param batchSize the maximal amount of Recordings deleted per statement.
+     * @return the result of the sweep.
+     * @throws IOException if the database could not be read or written.
+     */
+    public synchronized SweepResult sweepExpiredRecordings(long maxAge, int batchSize) throws IOException {
+        long started = System.currentTimeMillis();
+        long cutoff = started - maxAge;
+        int purged = 0;
+        int batches = 0;
+
+        try (Connection connection = dataSource.getConnection()) {
+            List<String> recordIds;
+
+            do {
+                recordIds = new ArrayList<>(batchSize);
+
+                try (PreparedStatement statement = connection.prepareStatement(expiredQuery)) {
+                    statement.setMaxRows(batchSize);
+                    statement.setLong(1, cutoff);
+
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            recordIds.add(resultSet.getString(1));
+                        }
+                    }
+                }
+
+                if (recordIds.isEmpty()) break;
+
+                try (PreparedStatement statement = connection.prepareStatement(bulkDeleteQuery
+                        + "(" + String.join(",", Collections.nCopies(recordIds.size(), "?")) + ")")) {
+                    for (int i = 0; i < recordIds.size(); i++) {
+                        statement.setString(i + 1, recordIds.get(i));
+                    }
+
+                    purged += statement.executeUpdate();
+                    batches++;
+                }
+
+                for (String recordId : recordIds) {
+                    metadataCache.invalidate(recordId);
+
+                    if (fileStore != null) {
+                        fileStore.delete(recordId);
+                    }
+
+                    transcodeCache.delete(recordId);
+                }
+            } while (recordIds.size() == batchSize);
+        } catch (SQLException exception) {
+            throw new IOException("Could not delete the expired Recordings!", exception);
+        }
+
+        long finished = System.currentTimeMillis();
+        SweepResult result = new SweepResult(purged, batches, finished - started, finished);
+
+        sweeps.increment();
+        purgedRecordings.add(purged);
+        sweepMillis.add(result.duration());
+
+        if (purged > 0) {
+            log.info("Deleted {} expired Recordings in {} batches within {}ms.", purged, batches, result.duration());
+        }
+
+        return result;
+    }
+
+    /**
+     * Get a summary of every sweep since the start.
+     *
+     * @return the summary.
+     */
+    public static String getSweepStats() {
+        return String.format("%d sweeps, %d Recordings deleted, %dms spent", sweeps.sum(), purgedRecordings.sum(), sweepMillis.sum());
+    }
+
+    /**
+     * Remove the files of Recordings that do not exist in the database anymore.
+     * It holds the same lock as the migration, and the files are listed before the identifiers are read,
+     * so a Recording that is written or moved meanwhile is never treated as deleted.
+     *
+     * @throws IOException if the database or the files could not be read.
+     */
+    private synchronized void cleanUpFiles() throws IOException {
+        List<String> storedRecordings = fileStore != null ? fileStore.getStoredRecordings() : List.of();
+        List<String> cachedRecordings = transcodeCache.getCachedRecordings();
+        Set<String> recordIds = new HashSet<>();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(identifierQuery);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                recordIds.add(resultSet.getString(1));
+            }
+        } catch (SQLException exception) {
+            throw new IOException("Could not read the Recordings!", exception);
+        }
+
+        for (String recordId : storedRecordings) {
+            if (!recordIds.contains(recordId)) {
+                fileStore.delete(recordId);
+            }
+        }
+
+        for (String recordId : cachedRecordings) {
+            if (!recordIds.contains(recordId)) {
+                transcodeCache.delete(recordId);
+            }
+        }
+    }
+
+    //endregion
+}
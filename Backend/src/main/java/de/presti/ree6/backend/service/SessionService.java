@@ -6,14 +6,17 @@ import com.jagrosh.jdautilities.oauth2.entities.OAuth2User;
 import com.jagrosh.jdautilities.oauth2.session.Session;
 import de.presti.ree6.backend.Server;
 import de.presti.ree6.backend.bot.BotWorker;
+import de.presti.ree6.backend.bot.PermissionIndex;
 import de.presti.ree6.backend.utils.RandomUtils;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.cache.ExpiringCache;
 import de.presti.ree6.backend.utils.data.container.guild.GuildContainer;
 import de.presti.ree6.backend.utils.data.container.SessionContainer;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.Member;
 import org.springframework.stereotype.Service;
 
+import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
 
@@ -23,6 +26,18 @@ import java.util.List;
 @Service
 public class SessionService {
 
+    /**
+     * Cache of the validated Sessions, keyed by their Identifier.
+     */
+    private final ExpiringCache<String, SessionContainer> sessionCache =
+            new ExpiringCache<>("sessions", Data.getSessionCacheSize(), Data.getSessionCacheTtl(), Data.getSessionCacheIdle());
+
+    /**
+     * Cache of the OAuth2 Guild lists, keyed by the Identifier of the Session.
+     */
+    private final ExpiringCache<String, List<OAuth2Guild>> guildListCache =
+            new ExpiringCache<>("oauth2-guilds", Data.getSessionCacheSize(), Data.getGuildListCacheTtl(), null);
+
     /**
      * Retrieve a Session from the Identifier.
      *
@@ -31,25 +46,100 @@ public class SessionService {
      * @throws IllegalAccessException If the Session could not be found.
      */
     public SessionContainer retrieveSession(String identifier) throws IllegalAccessException {
+        if (identifier == null || identifier.isBlank()) {
+            throw new IllegalAccessException("Session not found!");
+        }
+
+        SessionContainer sessionContainer;
+
         try {
-            // Try retrieving the Session from the Identifier.
-            Session session = Server.getInstance().getOAuth2Client().getSessionController().getSession(identifier);
+            sessionContainer = sessionCache.get(identifier, this::loadSession);
+        } catch (Exception ignore) {
+            throw new IllegalAccessException("Session not found!");
+        }
 
-            if (session == null) {
-                throw new IllegalAccessException("Session not found!");
-            }
+        // Drop Sessions whose token ran out while they were cached.
+        OffsetDateTime expiration = sessionContainer.getSession().getExpiration();
+        if (expiration != null && expiration.isBefore(OffsetDateTime.now())) {
+            invalidateSession(identifier);
+            throw new IllegalAccessException("Session expired!");
+        }
 
-            // Try retrieving the User from the Session.
-            OAuth2User oAuth2User = Server.getInstance().getOAuth2Client().getUser(session).complete();
+        return sessionContainer;
+    }
 
-            if (oAuth2User == null) {
-                throw new IllegalAccessException("User not found!");
-            }
+    /**
+     * Load a Session from Discord.
+     *
+     * @param identifier Identifier to identify the Session.
+     * @return Session Container with the Session.
+     * @throws IllegalAccessException If the Session could not be found.
+     */
+    private SessionContainer loadSession(String identifier) throws IllegalAccessException {
+        // Try retrieving the Session from the Identifier.
+        Session session = Server.getInstance().getOAuth2Client().getSessionController().getSession(identifier);
 
-            return new SessionContainer("", session, oAuth2User);
-        } catch (Exception ignore) {
+        if (session == null) {
+            throw new IllegalAccessException("Session not found!");
+        }
+
+        // Try retrieving the User from the Session.
+        OAuth2User oAuth2User = Server.getInstance().getOAuth2Client().getUser(session).complete();
+
+        if (oAuth2User == null) {
+            throw new IllegalAccessException("User not found!");
+        }
+
+        return new SessionContainer("", session, oAuth2User);
+    }
+
+    /**
+     * Close a Session, requests with its identifier are not authenticated anymore.
+     * The Session is removed from the OAuth2 Client before the cache, so a load that is still running can't bring it back.
+     *
+     * @param identifier Identifier to identify the Session.
+     * @throws IllegalAccessException If the Session could not be found.
+     */
+    public void closeSession(String identifier) throws IllegalAccessException {
+        if (identifier == null || identifier.isBlank()) {
             throw new IllegalAccessException("Session not found!");
         }
+
+        boolean removed = Server.getInstance().getSessionController().removeSession(identifier);
+        invalidateSession(identifier);
+
+        if (!removed) {
+            throw new IllegalAccessException("Session not found!");
+        }
+    }
+
+    /**
+     * Remove a Session from the cache, the next request has to validate it with Discord again.
+     *
+     * @param identifier Identifier to identify the Session.
+     */
+    public void invalidateSession(String identifier) {
+        if (identifier == null) return;
+
+        sessionCache.invalidate(identifier);
+        guildListCache.invalidate(identifier);
+    }
+
+    /**
+     * Retrieve the OAuth2 Guilds of a Session.
+     * Concurrent requests of the same Session share a single request to Discord.
+     *
+     * @param identifier       Identifier to identify the Session.
+     * @param sessionContainer Session Container with the Session.
+     * @param refresh          If the cached Guilds should be ignored.
+     * @return an unmodifiable List of the OAuth2 Guilds.
+     * @throws Exception If the Guilds could not be retrieved.
+     */
+    private List<OAuth2Guild> retrieveOAuth2Guilds(String identifier, SessionContainer sessionContainer, boolean refresh) throws Exception {
+        ExpiringCache.Loader<String, List<OAuth2Guild>> loader = key ->
+                List.copyOf(Server.getInstance().getOAuth2Client().getGuilds(sessionContainer.getSession()).complete());
+
+        return refresh ? guildListCache.load(identifier, loader) : guildListCache.get(identifier, loader);
     }
 
     /**
@@ -78,7 +168,9 @@ public class SessionService {
                     throw new IllegalAccessException("User not found!");
                 }
 
-                return new SessionContainer(identifier, session, Server.getInstance().getOAuth2Client().getUser(session).complete());
+                sessionCache.put(identifier, new SessionContainer("", session, oAuth2User));
+
+                return new SessionContainer(identifier, session, oAuth2User);
             } else {
                 throw new IllegalStateException("Session creation failed!");
             }
@@ -143,7 +235,7 @@ public class SessionService {
 
         OAuth2Guild oAuth2Guild = null;
         try {
-            oAuth2Guild = Server.getInstance().getOAuth2Client().getGuilds(sessionContainer.getSession()).complete()
+            oAuth2Guild = retrieveOAuth2Guilds(identifier, sessionContainer, false)
                     .stream().filter(c -> c.getId().equals(guildId) && c.hasPermission(Permission.ADMINISTRATOR)).findFirst().orElse(null);
         } catch (Exception ignore) {
         }
@@ -160,15 +252,13 @@ public class SessionService {
             }
         }
 
-        Member member = guild.retrieveMemberById(sessionContainer.getUser().getId()).complete();
-        if (permissionCheck) {
-            if (member == null || !member.hasPermission(Permission.ADMINISTRATOR)) {
-                throw new IllegalAccessException("Not enough permissions!");
-            }
+        boolean administrator = PermissionIndex.isAdministrator(guild, sessionContainer.getUser().getId());
+        if (permissionCheck && !administrator) {
+            throw new IllegalAccessException("Not enough permissions!");
         }
 
         GuildContainer guildContainer = new GuildContainer(guild, retrieveChannels, retrieveRoles);
-        guildContainer.setAdmin(member.hasPermission(Permission.ADMINISTRATOR));
+        guildContainer.setAdmin(administrator);
 
         return guildContainer;
     }
@@ -223,17 +313,28 @@ public class SessionService {
      * @throws IllegalAccessException If the Guilds could not be found.
      */
     public List<GuildContainer> retrieveGuilds(String identifier, boolean permissionFilter) throws IllegalAccessException {
+        return retrieveGuilds(identifier, permissionFilter, false);
+    }
+
+    /**
+     * Retrieve a List of Guilds from the Identifier.
+     *
+     * @param identifier       Identifier to identify the Session.
+     * @param permissionFilter If the Guilds should be filtered by the Permission.
+     * @param refresh          If the cached Guilds should be ignored and retrieved from Discord again.
+     * @return List of Guild Containers with the Guilds.
+     * @throws IllegalAccessException If the Guilds could not be found.
+     */
+    public List<GuildContainer> retrieveGuilds(String identifier, boolean permissionFilter, boolean refresh) throws IllegalAccessException {
         SessionContainer sessionContainer = retrieveSession(identifier);
         List<OAuth2Guild> guilds = Collections.emptyList();
 
         try {
-            guilds = Server.getInstance().getOAuth2Client().getGuilds(sessionContainer.getSession()).complete();
-
-            if (permissionFilter)
-                guilds.removeIf(oAuth2Guild -> !oAuth2Guild.hasPermission(Permission.ADMINISTRATOR));
+            guilds = retrieveOAuth2Guilds(identifier, sessionContainer, refresh);
         } catch (Exception ignore) {
         }
 
-        return guilds.stream().map(GuildContainer::new).toList();
+        return guilds.stream().filter(oAuth2Guild -> !permissionFilter || oAuth2Guild.hasPermission(Permission.ADMINISTRATOR))
+                .map(GuildContainer::new).toList();
     }
 }
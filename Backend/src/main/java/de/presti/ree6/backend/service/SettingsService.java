@@ -0,0 +1,386 @@
+package de.presti.ree6.backend.service;
+
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.cache.ExpiringCache;
+import de.presti.ree6.backend.utils.data.container.SettingsSyncContainer;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.Setting;
+import de.presti.ree6.sql.util.SettingsManager;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service used to read and change the Settings of a Guild.
+ * The Settings of a Guild are loaded with a single query and cached, changes are written to the database first
+ * and then into the cache, so the cache never holds a value the database does not.
+ * Every change gets a version, so clients can request only the Settings that changed since their last visit.
+ */
+@Service
+public class SettingsService {
+
+    private final SessionService sessionService;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The snapshots of the Settings of every cached Guild, keyed by the Guild ID.
+     * Snapshots are never changed, a change replaces the snapshot of the Guild.
+     */
+    private final ExpiringCache<String, SettingsSnapshot> cache =
+            new ExpiringCache<>("settings", Data.getSettingsCacheSize(), Data.getSettingsCacheTtl(), null);
+
+    /**
+     * The source of the versions, shared by every Guild so a version is never given out twice.
+     * It starts at the current time, so versions of a previous run are always older than the ones of this run.
+     */
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+
+    @Autowired
+    public SettingsService(SessionService sessionService, EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.sessionService = sessionService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    //region Retrieve
+
+    public List<Setting> getSettings(String sessionIdentifier, String guildId) throws IllegalAccessException {
+        sessionService.retrieveGuild(sessionIdentifier, guildId);
+        return new ArrayList<>(getSnapshot(guildId).settings().values());
+    }
+
+    /**
+     * Get the Settings of a Guild that changed after a version.
+     *
+     * @param sessionIdentifier the identifier of the Session.
+     * @param guildId           the ID of the Guild.
+     * @param since             the version the client already has.
+     * @return the changed Settings, every Setting if the version is unknown.
+     * @throws IllegalAccessException if the Session may not access the Guild.
+     */
+    public SettingsSyncContainer getSettingsSince(String sessionIdentifier, String guildId, long since) throws IllegalAccessException {
+        sessionService.retrieveGuild(sessionIdentifier, guildId);
+
+        SettingsSnapshot snapshot = getSnapshot(guildId);
+
+        // The changes before the snapshot has been created are unknown, so the client has to replace everything.
+        if (since < snapshot.created() || since > snapshot.version()) {
+            return new SettingsSyncContainer(snapshot.version(), true, new ArrayList<>(snapshot.settings().values()));
+        }
+
+        List<Setting> changed = new ArrayList<>();
+
+        snapshot.versions().forEach((name, version) -> {
+            if (version > since) {
+                changed.add(snapshot.settings().get(name));
+            }
+        });
+
+        return new SettingsSyncContainer(snapshot.version(), false, changed);
+    }
+
+    public Setting getSetting(String sessionIdentifier, String guildId, String settingName) throws IllegalAccessException {
+        sessionService.retrieveGuild(sessionIdentifier, guildId);
+        return getSetting(guildId, settingName);
+    }
+
+    /**
+     * Get a Setting of a Guild without checking the Session.
+     * Settings that are not stored yet are retrieved from the database, which creates them with their default value.
+     *
+     * @param guildId     the ID of the Guild.
+     * @param settingName the name of the Setting.
+     * @return the Setting.
+     */
+    public Setting getSetting(String guildId, String settingName) {
+        Setting setting = getSnapshot(guildId).settings().get(settingName);
+
+        if (setting == null) {
+            setting = SQLSession.getSqlConnector().getSqlWorker().getSetting(guildId, settingName);
+            putSetting(guildId, setting);
+        }
+
+        return setting;
+    }
+
+    /**
+     * Get the snapshot of a Guild, it is only loaded from the database if there is none or it is older than the refresh time.
+     * A refreshed snapshot keeps the versions of the Settings that did not change, unless a Setting has been removed.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the snapshot.
+     */
+    private SettingsSnapshot getSnapshot(String guildId) {
+        SettingsSnapshot snapshot;
+
+        try {
+            snapshot = cache.get(guildId, key -> createSnapshot(key, null));
+        } catch (Exception exception) {
+            throw new IllegalStateException("Could not load the Settings!", exception);
+        }
+
+        // The Bot changes Settings as well, so they are loaded again after the refresh time.
+        if (System.currentTimeMillis() - snapshot.loaded() > Data.getSettingsCacheRefresh().toMillis()) {
+            SettingsSnapshot refreshed = createSnapshot(guildId, snapshot);
+
+            synchronized (this) {
+                // A change made in the meantime is newer than the refreshed snapshot.
+                if (cache.get(guildId) == snapshot) {
+                    cache.put(guildId, refreshed);
+                    snapshot = refreshed;
+                }
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Load the Settings of a Guild from the database.
+     *
+     * @param guildId  the ID of the Guild.
+     * @param previous the previous snapshot of the Guild, {@code null} if there is none.
+     * @return the snapshot.
+     */
+    private SettingsSnapshot createSnapshot(String guildId, SettingsSnapshot previous) {
+        List<Setting> loaded = SQLSession.getSqlConnector().getSqlWorker().getAllSettings(guildId);
+        Map<String, Setting> settings = new LinkedHashMap<>();
+        Map<String, Long> settingVersions = new LinkedHashMap<>();
+        long version = versions.incrementAndGet();
+
+        for (Setting setting : loaded) {
+            Setting known = previous != null ? previous.settings().get(setting.getName()) : null;
+
+            settings.put(setting.getName(), setting);
+            settingVersions.put(setting.getName(), known != null && Objects.equals(known.getValue(), setting.getValue())
+                    ? previous.versions().get(setting.getName()) : version);
+        }
+
+        if (previous == null) {
+            return new SettingsSnapshot(Collections.unmodifiableMap(settings), Collections.unmodifiableMap(settingVersions),
+                    version, version, System.currentTimeMillis());
+        }
+
+        // A removed Setting can't be sent as a change, so the snapshot starts over and clients have to replace everything.
+        if (!settings.keySet().containsAll(previous.settings().keySet())) {
+            return new SettingsSnapshot(Collections.unmodifiableMap(settings), Collections.unmodifiableMap(settingVersions),
+                    version, version, System.currentTimeMillis());
+        }
+
+        // Without a change the version of the Guild stays the same, so clients are not sent anything.
+        boolean changed = settingVersions.containsValue(version);
+
+        return new SettingsSnapshot(Collections.unmodifiableMap(settings), Collections.unmodifiableMap(settingVersions),
+                previous.created(), changed ? version : previous.version(), System.currentTimeMillis());
+    }
+
+    //endregion
+
+    //region Update
+
+    public Setting updateSetting(String sessionIdentifier, String guildId, String settingName, String value) throws IllegalAccessException {
+        sessionService.retrieveGuild(sessionIdentifier, guildId);
+
+        // The cached instance is shared with readers, so the change is made on a fresh one.
+        Setting setting = SQLSession.getSqlConnector().getSqlWorker().getSetting(guildId, settingName);
+        setting.setValue(value);
+
+        setting = SQLSession.getSqlConnector().getSqlWorker().updateEntity(setting);
+        putSetting(guildId, setting);
+        return setting;
+    }
+
+    /**
+     * Update multiple Settings of a Guild at once.
+     * Every Setting is validated before anything is written, then all of them are written in one transaction,
+     * so either every Setting is changed or none.
+     *
+     * @param sessionIdentifier the identifier of the Session.
+     * @param guildId           the ID of the Guild.
+     * @param values            the new values keyed by the name of the Setting.
+     * @return the updated Settings.
+     * @throws IllegalAccessException if the Session may not change the Guild or a Setting is invalid.
+     */
+    public List<Setting> updateSettings(String sessionIdentifier, String guildId, Map<String, String> values) throws IllegalAccessException {
+        if (values == null || values.isEmpty())
+            throw new IllegalAccessException("No Settings to update!");
+
+        if (values.size() > Data.getSettingsUpdateLimit())
+            throw new IllegalAccessException("Too many Settings, at most " + Data.getSettingsUpdateLimit() + " can be updated at once!");
+
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (entry.getKey() == null || SettingsManager.getDefault(entry.getKey()) == null)
+                throw new IllegalAccessException("Setting " + entry.getKey() + " not found!");
+
+            if (entry.getValue() == null)
+                throw new IllegalAccessException("Setting " + entry.getKey() + " has no value!");
+        }
+
+        sessionService.retrieveGuild(sessionIdentifier, guildId);
+
+        // The stored rows are loaded with one query, the changes are sent as JDBC batches when the transaction commits.
+        List<Setting> updated = transactionTemplate.execute(status -> {
+            Map<String, Setting> stored = new LinkedHashMap<>();
+
+            for (Setting setting : entityManager.createQuery("FROM Setting WHERE guildId = :gid AND name IN :names", Setting.class)
+                    .setParameter("gid", guildId)
+                    .setParameter("names", values.keySet())
+                    .getResultList()) {
+                stored.put(setting.getName(), setting);
+            }
+
+            List<Setting> settings = new ArrayList<>(values.size());
+
+            values.forEach((name, value) -> {
+                Setting setting = stored.get(name);
+
+                if (setting == null) {
+                    setting = SettingsManager.getDefault(name);
+                    setting.setGuildId(guildId);
+                    setting.setValue(value);
+                    entityManager.persist(setting);
+                } else {
+                    setting.setValue(value);
+                }
+
+                settings.add(setting);
+            });
+
+            return settings;
+        });
+
+        putSettings(guildId, updated);
+        return updated;
+    }
+
+    public void deleteSetting(String sessionIdentifier, String guildId, String settingName) throws IllegalAccessException {
+        sessionService.retrieveGuild(sessionIdentifier, guildId);
+
+        Setting setting = SettingsManager.getDefault(settingName);
+        setting.setGuildId(guildId);
+
+        SQLSession.getSqlConnector().getSqlWorker().setSetting(setting);
+        putSetting(guildId, setting);
+    }
+
+    /**
+     * Reset multiple Settings of a Guild to their default values.
+     * The stored rows are removed with one statement and the defaults are written in the same transaction,
+     * so the Guild never has a Setting without a value.
+     *
+     * @param sessionIdentifier the identifier of the Session.
+     * @param guildId           the ID of the Guild.
+     * @param prefix            the prefix of the names of the Settings, {@code null} or empty for every Setting.
+     * @return the reset Settings.
+     * @throws IllegalAccessException if the Session may not change the Guild or no Setting has the prefix.
+     */
+    public List<Setting> resetSettings(String sessionIdentifier, String guildId, String prefix) throws IllegalAccessException {
+        String namePrefix = prefix != null ? prefix.trim() : "";
+
+        List<String> names = SettingsManager.getSettings().stream().map(Setting::getName)
+                .filter(name -> name.startsWith(namePrefix)).toList();
+
+        if (names.isEmpty())
+            throw new IllegalAccessException("No Settings found!");
+
+        sessionService.retrieveGuild(sessionIdentifier, guildId);
+
+        List<Setting> defaults = transactionTemplate.execute(status -> {
+            entityManager.createQuery("DELETE FROM Setting WHERE guildId = :gid AND name IN :names")
+                    .setParameter("gid", guildId)
+                    .setParameter("names", names)
+                    .executeUpdate();
+
+            List<Setting> settings = new ArrayList<>(names.size());
+
+            for (String name : names) {
+                Setting setting = SettingsManager.getDefault(name);
+                setting.setGuildId(guildId);
+                entityManager.persist(setting);
+                settings.add(setting);
+            }
+
+            return settings;
+        });
+
+        // Replaces the cached Settings of the Guild at once, readers never see a partial reset.
+        putSettings(guildId, defaults);
+        return defaults;
+    }
+
+    /**
+     * Remove the Settings of a Guild from the cache, they will be loaded again on the next request.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public void invalidate(String guildId) {
+        cache.invalidate(guildId);
+    }
+
+    /**
+     * Write a Setting that has been stored in the database into the cache.
+     * If the Settings of the Guild are not cached, only a running load is discarded, since they are loaded completely on the next request.
+     *
+     * @param guildId the ID of the Guild.
+     * @param setting the stored Setting.
+     */
+    private void putSetting(String guildId, Setting setting) {
+        putSettings(guildId, List.of(setting));
+    }
+
+    /**
+     * Write Settings that have been stored in the database into the cache, they all get the same new version.
+     * If the Settings of the Guild are not cached, only a running load is discarded, since they are loaded completely on the next request.
+     *
+     * @param guildId  the ID of the Guild.
+     * @param settings the stored Settings.
+     */
+    private synchronized void putSettings(String guildId, List<Setting> settings) {
+        SettingsSnapshot current = cache.get(guildId);
+
+        if (current == null) {
+            // A snapshot that is loaded right now could be read before the write, so it must not be cached.
+            cache.invalidate(guildId);
+            return;
+        }
+
+        Map<String, Setting> updated = new LinkedHashMap<>(current.settings());
+        Map<String, Long> settingVersions = new LinkedHashMap<>(current.versions());
+        long version = versions.incrementAndGet();
+
+        for (Setting setting : settings) {
+            updated.put(setting.getName(), setting);
+            settingVersions.put(setting.getName(), version);
+        }
+
+        cache.put(guildId, new SettingsSnapshot(Collections.unmodifiableMap(updated), Collections.unmodifiableMap(settingVersions),
+                current.created(), version, current.loaded()));
+    }
+
+    //endregion
+
+    /**
+     * The Settings of a Guild at one point in time.
+     *
+     * @param settings the Settings keyed by their name.
+     * @param versions the version of the last change of every Setting, keyed by their name.
+     * @param created  the version the snapshot has been created with, changes before it are unknown.
+     * @param version  the version of the last change of any Setting.
+     * @param loaded   the time the Settings have last been loaded from the database, in milliseconds.
+     */
+    private record SettingsSnapshot(Map<String, Setting> settings, Map<String, Long> versions, long created, long version, long loaded) {
+    }
+}
@@ -1,6 +1,11 @@
 package de.presti.ree6.backend.utils;
 
+import de.presti.ree6.backend.Server;
+import de.presti.ree6.backend.utils.data.Data;
+
 import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
@@ -13,7 +18,41 @@ public class ThreadUtil {
     /**
      * The Thread-pool used to create ASyncThreads.
      */
-    static ExecutorService executorService = Executors.newFixedThreadPool(150);
+    static ExecutorService executorService = createExecutorService();
+
+    /**
+     * Create the Thread-pool, either backed by virtual threads or by a fixed amount of platform threads.
+     *
+     * @return the Thread-pool.
+     */
+    private static ExecutorService createExecutorService() {
+        if (Server.getInstance() != null && Data.isVirtualThreads()) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+
+        return Executors.newFixedThreadPool(150);
+    }
+
+    /**
+     * Runs a task in the Thread-pool.
+     *
+     * @param task the task that should be executed.
+     * @param <T>  the type of the result.
+     * @return a {@link CompletableFuture} that is completed with the result of the task.
+     */
+    public static <T> CompletableFuture<T> createTask(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        executorService.submit(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        });
+
+        return future;
+    }
 
     /**
      * Creates a Thread with a Consumer.
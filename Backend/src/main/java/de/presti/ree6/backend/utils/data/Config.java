@@ -90,10 +90,63 @@ public class Config {
                     .parent().path("loginRedirect").addDefault("https://cp.ree6.de/login").commentSide("Redirect URL if the user is not logged-in.")
                     .parent().path("allowedDomains").addDefault("https://*.ree6.de,http://localhost:[5173,8888]").commentSide("""
                             Domains that are allowed to request the backend.
-                            We recommend doing *.HOST.TLD, and then putting the backend behind something like API.HOST.TLD!""");
+                            We recommend doing *.HOST.TLD, and then putting the backend behind something like API.HOST.TLD!""")
+                    .parent().path("virtualThreads").addDefault(false).commentSide("Should requests and background tasks run on virtual threads? Requires Java 21. Experimental, keep it disabled until it has been load tested.");
 
             yamlFile.path("customization").comment("Settings to customize the Backend to your liking!").blankLine()
-                    .path("leaderboardTop").addDefault(5).commentSide("How many Users should be displayed on the Leaderboard?");
+                    .path("leaderboardTop").addDefault(5).commentSide("How many Users should be displayed on the Leaderboard?")
+                    .parent().path("leaderboardPageSize").addDefault(25).commentSide("How many Users are on a Leaderboard page by default?")
+                    .parent().path("leaderboardPageLimit").addDefault(100).commentSide("How many Users can be on a Leaderboard page at most?")
+                    .parent().path("leaderboardRankNeighbors").addDefault(2).commentSide("How many Users above and below a User are shown with their rank by default?")
+                    .parent().path("notifierPageLimit").addDefault(100).commentSide("How many Notifiers can be requested at once?")
+                    .parent().path("notifierImportLimit").addDefault(1000).commentSide("How many Notifiers can be imported at once?")
+                    .parent().path("settingsUpdateLimit").addDefault(200).commentSide("How many Settings can be updated at once?")
+                    .parent().path("moderationPageSize").addDefault(25).commentSide("How many Warnings or Punishments are on a page by default?")
+                    .parent().path("moderationPageLimit").addDefault(100).commentSide("How many Warnings or Punishments can be on a page at most?");
+
+            yamlFile.path("cache").comment("Settings for the in-memory caches of the Backend.").blankLine()
+                    .path("session").path("ttl").addDefault(300).commentSide("How many seconds a Session is cached before it is validated with Discord again.")
+                    .parent().path("idle").addDefault(120).commentSide("How many seconds an unused Session stays cached.")
+                    .parent().path("size").addDefault(10000).commentSide("How many Sessions can be cached at once.")
+                    .parent().parent().path("guilds").path("ttl").addDefault(30).commentSide("How many seconds the Guild list of a Session is cached.")
+                    .parent().parent().path("webhooks").path("ttl").addDefault(300).commentSide("How many seconds the Webhooks of a Guild are cached.")
+                    .parent().path("size").addDefault(5000).commentSide("Of how many Guilds the Webhooks can be cached at once.")
+                    .parent().parent().path("users").path("ttl").addDefault(3600).commentSide("How many seconds the profile of a User is cached.")
+                    .parent().path("refresh").addDefault(900).commentSide("After how many seconds a cached profile is refreshed in the background.")
+                    .parent().path("size").addDefault(10000).commentSide("How many profiles can be cached at once.")
+                    .parent().path("parallelism").addDefault(8).commentSide("How many profiles can be retrieved from Discord at the same time.")
+                    .parent().path("queue").addDefault(1000).commentSide("How many profiles can wait to be retrieved, lookups over it are shown as placeholder.")
+                    .parent().parent().path("leaderboards").path("ttl").addDefault(600).commentSide("How many seconds a Leaderboard is cached at most.")
+                    .parent().path("refresh").addDefault(30).commentSide("After how many seconds a changed Leaderboard is refreshed in the background.")
+                    .parent().path("size").addDefault(2000).commentSide("How many Leaderboards can be cached at once.")
+                    .parent().parent().path("ranks").path("ttl").addDefault(3600).commentSide("How many seconds the rank index of a Leaderboard is kept at most.")
+                    .parent().path("rebuild").addDefault(300).commentSide("After how many seconds a changed rank index is rebuilt in the background.")
+                    .parent().path("size").addDefault(500).commentSide("How many rank indexes can be kept at once.")
+                    .parent().parent().path("recordings").path("ttl").addDefault(3600).commentSide("How many seconds the participants of a Recording are cached.")
+                    .parent().path("size").addDefault(1000).commentSide("Of how many Recordings the participants can be cached at once.")
+                    .parent().parent().path("settings").path("ttl").addDefault(3600).commentSide("How many seconds the Settings of a Guild and their versions are cached at most.")
+                    .parent().path("refresh").addDefault(60).commentSide("After how many seconds cached Settings are loaded again, to notice changes made by the Bot.")
+                    .parent().path("size").addDefault(2000).commentSide("Of how many Guilds the Settings can be cached at once.")
+                    .parent().parent().path("nonMembers").path("ttl").addDefault(60).commentSide("How many seconds a User is remembered as no member of a Guild.")
+                    .parent().path("size").addDefault(10000).commentSide("How many Users can be remembered as no member at once.");
+
+            yamlFile.path("reconciler").comment("Settings for the background check of the Webhooks.").blankLine()
+                    .path("enabled").addDefault(true).commentSide("Should the Webhook entries be compared with the Webhooks on Discord in the background?")
+                    .parent().path("interval").addDefault(10).commentSide("How many minutes are between two runs.")
+                    .parent().path("batchSize").addDefault(25).commentSide("How many Guilds are checked per run.")
+                    .parent().path("delay").addDefault(1000).commentSide("How many milliseconds to wait between two Guilds.")
+                    .parent().path("dryRun").addDefault(true).commentSide("Should entries and Webhooks only be logged instead of being removed? Channels are always repaired.");
+
+            yamlFile.path("recordings").comment("Settings for the storage of the Recordings.").blankLine()
+                    .path("store").addDefault("sql").commentSide("Where the audio of Recordings is kept. Possible entries: sql, file")
+                    .parent().path("path").addDefault("storage/recordings").commentSide("The folder of the file store.")
+                    .parent().path("deleteOnDownload").addDefault(true).commentSide("Should a Recording be deleted once it has been downloaded completely?")
+                    .parent().path("maxAge").addDefault(24).commentSide("After how many hours a Recording is deleted.")
+                    .parent().path("sweepInterval").addDefault(5).commentSide("How many minutes are between two checks for expired Recordings.")
+                    .parent().path("sweepBatchSize").addDefault(100).commentSide("How many expired Recordings are deleted per statement.")
+                    .parent().path("migrate").addDefault(true).commentSide("Should the audio be moved from the database into the file store in the background? Only used for the file store.")
+                    .parent().path("migrateInterval").addDefault(15).commentSide("How many minutes are between two migration runs.")
+                    .parent().path("migrateBatchSize").addDefault(50).commentSide("How many Recordings are moved per run.");
 
             try {
                 yamlFile.save(getFile());
@@ -2,6 +2,9 @@ package de.presti.ree6.backend.utils.data;
 
 import de.presti.ree6.backend.Server;
 
+import java.nio.file.Path;
+import java.time.Duration;
+
 /**
  * Utility class to save long term used Data.
  */
@@ -36,10 +39,197 @@ public class Data {
         return Server.getInstance().getConfig().getConfiguration().getString("webinterface.allowedDomains", "https://*.ree6.de,http://localhost:[5173,8888]");
     }
 
+    public static boolean isVirtualThreads() {
+        return Server.getInstance().getConfig().getConfiguration().getBoolean("webinterface.virtualThreads", false);
+    }
+
     public static int getLeaderboardTop() {
         return Server.getInstance().getConfig().getConfiguration().getInt("customization.leaderboardTop", 5);
     }
 
+    public static int getLeaderboardPageSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("customization.leaderboardPageSize", 25);
+    }
+
+    public static int getLeaderboardPageLimit() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("customization.leaderboardPageLimit", 100);
+    }
+
+    public static int getLeaderboardRankNeighbors() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("customization.leaderboardRankNeighbors", 2);
+    }
+
+    public static int getNotifierPageLimit() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("customization.notifierPageLimit", 100);
+    }
+
+    public static int getNotifierImportLimit() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("customization.notifierImportLimit", 1000);
+    }
+
+    public static int getSettingsUpdateLimit() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("customization.settingsUpdateLimit", 200);
+    }
+
+    public static int getModerationPageSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("customization.moderationPageSize", 25);
+    }
+
+    public static int getModerationPageLimit() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("customization.moderationPageLimit", 100);
+    }
+
+    public static Duration getSessionCacheTtl() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.session.ttl", 300));
+    }
+
+    public static Duration getSessionCacheIdle() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.session.idle", 120));
+    }
+
+    public static int getSessionCacheSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("cache.session.size", 10000);
+    }
+
+    public static Duration getGuildListCacheTtl() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.guilds.ttl", 30));
+    }
+
+    public static Duration getWebhookCacheTtl() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.webhooks.ttl", 300));
+    }
+
+    public static int getWebhookCacheSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("cache.webhooks.size", 5000);
+    }
+
+    public static Duration getUserCacheTtl() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.users.ttl", 3600));
+    }
+
+    public static Duration getUserCacheRefresh() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.users.refresh", 900));
+    }
+
+    public static int getUserCacheSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("cache.users.size", 10000);
+    }
+
+    public static int getUserCacheParallelism() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("cache.users.parallelism", 8);
+    }
+
+    public static int getUserCacheQueueSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("cache.users.queue", 1000);
+    }
+
+    public static Duration getLeaderboardCacheTtl() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.leaderboards.ttl", 600));
+    }
+
+    public static Duration getLeaderboardCacheRefresh() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.leaderboards.refresh", 30));
+    }
+
+    public static int getLeaderboardCacheSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("cache.leaderboards.size", 2000);
+    }
+
+    public static Duration getRankIndexTtl() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.ranks.ttl", 3600));
+    }
+
+    public static Duration getRankIndexRebuild() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.ranks.rebuild", 300));
+    }
+
+    public static int getRankIndexSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("cache.ranks.size", 500);
+    }
+
+    public static Duration getRecordingCacheTtl() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.recordings.ttl", 3600));
+    }
+
+    public static int getRecordingCacheSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("cache.recordings.size", 1000);
+    }
+
+    public static Duration getSettingsCacheTtl() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.settings.ttl", 3600));
+    }
+
+    public static Duration getSettingsCacheRefresh() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.settings.refresh", 60));
+    }
+
+    public static int getSettingsCacheSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("cache.settings.size", 2000);
+    }
+
+    public static Duration getNonMemberCacheTtl() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.nonMembers.ttl", 60));
+    }
+
+    public static int getNonMemberCacheSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("cache.nonMembers.size", 10000);
+    }
+
+    public static boolean isReconcilerEnabled() {
+        return Server.getInstance().getConfig().getConfiguration().getBoolean("reconciler.enabled", true);
+    }
+
+    public static Duration getReconcilerInterval() {
+        return Duration.ofMinutes(Server.getInstance().getConfig().getConfiguration().getLong("reconciler.interval", 10));
+    }
+
+    public static int getReconcilerBatchSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("reconciler.batchSize", 25);
+    }
+
+    public static Duration getReconcilerDelay() {
+        return Duration.ofMillis(Server.getInstance().getConfig().getConfiguration().getLong("reconciler.delay", 1000));
+    }
+
+    public static boolean isReconcilerDryRun() {
+        return Server.getInstance().getConfig().getConfiguration().getBoolean("reconciler.dryRun", true);
+    }
+
     public static final String defaultIconUrl = "https://i0.wp.com/www.alphr.com/wp-content/uploads/2019/02/Discord-Spoiler-Tag-Featured.jpg?resize=1200%2C1080&ssl=1";
-}
 
+    public static boolean isRecordingFileStore() {
+        return Server.getInstance().getConfig().getConfiguration().getString("recordings.store", "sql").equalsIgnoreCase("file");
+    }
+
+    public static Path getRecordingPath() {
+        return Path.of(Server.getInstance().getConfig().getConfiguration().getString("recordings.path", "storage/recordings"));
+    }
+
+    public static boolean isRecordingDeleteOnDownload() {
+        return Server.getInstance().getConfig().getConfiguration().getBoolean("recordings.deleteOnDownload", true);
+    }
+
+    public static Duration getRecordingMaxAge() {
+        return Duration.ofHours(Server.getInstance().getConfig().getConfiguration().getLong("recordings.maxAge", 24));
+    }
+
+    public static Duration getRecordingSweepInterval() {
+        return Duration.ofMinutes(Server.getInstance().getConfig().getConfiguration().getLong("recordings.sweepInterval", 5));
+    }
+
+    public static int getRecordingSweepBatchSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("recordings.sweepBatchSize", 100);
+    }
+
+    public static boolean isRecordingMigrationEnabled() {
+        return Server.getInstance().getConfig().getConfiguration().getBoolean("recordings.migrate", true);
+    }
+
+    public static Duration getRecordingMigrationInterval() {
+        return Duration.ofMinutes(Server.getInstance().getConfig().getConfiguration().getLong("recordings.migrateInterval", 15));
+    }
+
+    public static int getRecordingMigrationBatchSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("recordings.migrateBatchSize", 50);
+    }
+}
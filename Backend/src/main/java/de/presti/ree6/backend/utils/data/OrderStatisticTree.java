@@ -0,0 +1,204 @@
+package de.presti.ree6.backend.utils.data;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorted set that knows the position of every element, implemented as a treap whose nodes store the size of their subtree.
+ * Adding, removing and both position lookups take O(log n) on average.
+ * It is not thread-safe.
+ *
+ * @param <T> the type of the elements.
+ */
+public class OrderStatisticTree<T> {
+
+    /**
+     * The order of the elements.
+     */
+    private final Comparator<? super T> comparator;
+
+    /**
+     * The root node, {@code null} if the tree is empty.
+     */
+    private Node<T> root;
+
+    /**
+     * Constructor for a new, empty tree.
+     *
+     * @param comparator the order of the elements.
+     */
+    public OrderStatisticTree(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Add an element, if it is not already part of the tree.
+     *
+     * @param value the element.
+     */
+    public void add(T value) {
+        root = insert(root, value);
+    }
+
+    /**
+     * Remove an element.
+     *
+     * @param value the element.
+     */
+    public void remove(T value) {
+        root = delete(root, value);
+    }
+
+    /**
+     * Get the amount of elements.
+     *
+     * @return the amount of elements.
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Get the position of an element.
+     *
+     * @param value the element.
+     * @return the amount of elements that are ordered before it, or -1 if it is not part of the tree.
+     */
+    public int indexOf(T value) {
+        int index = 0;
+        Node<T> node = root;
+
+        while (node != null) {
+            int compare = comparator.compare(value, node.value);
+
+            if (compare < 0) {
+                node = node.left;
+            } else if (compare > 0) {
+                index += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return index + size(node.left);
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Get the element at a position.
+     *
+     * @param index the position, starting at zero.
+     * @return the element.
+     * @throws IndexOutOfBoundsException if there is no element at the position.
+     */
+    public T get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        Node<T> node = root;
+
+        while (true) {
+            int leftSize = size(node.left);
+
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    private Node<T> insert(Node<T> node, T value) {
+        if (node == null) {
+            return new Node<>(value);
+        }
+
+        int compare = comparator.compare(value, node.value);
+
+        if (compare < 0) {
+            node.left = insert(node.left, value);
+            if (node.left.priority > node.priority) node = rotateRight(node);
+        } else if (compare > 0) {
+            node.right = insert(node.right, value);
+            if (node.right.priority > node.priority) node = rotateLeft(node);
+        }
+
+        update(node);
+        return node;
+    }
+
+    private Node<T> delete(Node<T> node, T value) {
+        if (node == null) {
+            return null;
+        }
+
+        int compare = comparator.compare(value, node.value);
+
+        if (compare < 0) {
+            node.left = delete(node.left, value);
+        } else if (compare > 0) {
+            node.right = delete(node.right, value);
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        } else if (node.left.priority > node.right.priority) {
+            // Rotate the node down until it only has one child left.
+            node = rotateRight(node);
+            node.right = delete(node.right, value);
+        } else {
+            node = rotateLeft(node);
+            node.left = delete(node.left, value);
+        }
+
+        update(node);
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private void update(Node<T> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private int size(Node<T> node) {
+        return node != null ? node.size : 0;
+    }
+
+    /**
+     * A node of the tree.
+     *
+     * @param <T> the type of the elements.
+     */
+    private static class Node<T> {
+        final T value;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node<T> left;
+        Node<T> right;
+        int size = 1;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+}
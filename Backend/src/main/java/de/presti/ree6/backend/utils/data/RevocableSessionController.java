@@ -0,0 +1,100 @@
+package de.presti.ree6.backend.utils.data;
+
+import com.jagrosh.jdautilities.oauth2.Scope;
+import com.jagrosh.jdautilities.oauth2.session.Session;
+import com.jagrosh.jdautilities.oauth2.session.SessionController;
+import com.jagrosh.jdautilities.oauth2.session.SessionData;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Session Controller of the OAuth2 Client that can remove Sessions again, used to log out.
+ * Sessions whose token ran out are removed when they are requested.
+ */
+public class RevocableSessionController implements SessionController<Session> {
+
+    /**
+     * The Sessions, keyed by their identifier.
+     */
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public Session getSession(String identifier) {
+        Session session = sessions.get(identifier);
+
+        if (session != null && session.getExpiration() != null && session.getExpiration().isBefore(OffsetDateTime.now())) {
+            sessions.remove(identifier, session);
+            return null;
+        }
+
+        return session;
+    }
+
+    @Override
+    public Session createSession(SessionData data) {
+        Session session = new StoredSession(data.getAccessToken(), data.getRefreshToken(), data.getTokenType(), data.getExpiration(), data.getScopes());
+        sessions.put(data.getIdentifier(), session);
+        return session;
+    }
+
+    /**
+     * Remove a Session, requests with its identifier are not authenticated anymore.
+     *
+     * @param identifier the identifier of the Session.
+     * @return true, if the Session existed.
+     */
+    public boolean removeSession(String identifier) {
+        return sessions.remove(identifier) != null;
+    }
+
+    /**
+     * A Session created by the OAuth2 Client.
+     */
+    private static class StoredSession implements Session {
+
+        private final String accessToken;
+
+        private final String refreshToken;
+
+        private final String tokenType;
+
+        private final OffsetDateTime expiration;
+
+        private final Scope[] scopes;
+
+        StoredSession(String accessToken, String refreshToken, String tokenType, OffsetDateTime expiration, Scope[] scopes) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+            this.tokenType = tokenType;
+            this.expiration = expiration;
+            this.scopes = scopes;
+        }
+
+        @Override
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        @Override
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+
+        @Override
+        public Scope[] getScopes() {
+            return scopes;
+        }
+
+        @Override
+        public String getTokenType() {
+            return tokenType;
+        }
+
+        @Override
+        public OffsetDateTime getExpiration() {
+            return expiration;
+        }
+    }
+}
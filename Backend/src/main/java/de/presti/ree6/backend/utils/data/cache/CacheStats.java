@@ -0,0 +1,21 @@
+package de.presti.ree6.backend.utils.data.cache;
+
+/**
+ * Statistics of a cache.
+ * @param name the name of the cache.
+ * @param size the current amount of entries.
+ * @param hits the amount of lookups that found a valid entry.
+ * @param misses the amount of lookups that did not find a valid entry.
+ * @param evictions the amount of entries that have been removed because of their size or age.
+ */
+public record CacheStats(String name, int size, long hits, long misses, long evictions) {
+
+    /**
+     * Get the ratio of lookups that found a valid entry.
+     * @return the hit rate between 0 and 1.
+     */
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
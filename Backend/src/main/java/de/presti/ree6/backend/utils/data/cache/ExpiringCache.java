@@ -0,0 +1,400 @@
+package de.presti.ree6.backend.utils.data.cache;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * A bounded in-memory cache with a time-to-live and an idle timeout per entry.
+ * Once the maximum size is reached the least recently used entry is evicted.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class ExpiringCache<K, V> {
+
+    /**
+     * Every cache that has been created, used to clean up and report all of them at once.
+     */
+    private static final List<ExpiringCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+
+    /**
+     * The name of the cache, used in the statistics.
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * The maximum amount of entries.
+     */
+    private final int maximumSize;
+
+    /**
+     * How long an entry is valid after it has been written, in milliseconds.
+     */
+    private final long timeToLive;
+
+    /**
+     * How long an entry is valid after it has last been read, in milliseconds. Zero or less disables it.
+     */
+    private final long idleTime;
+
+    /**
+     * The entries in access order, the eldest entry is the least recently used one.
+     */
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    /**
+     * Loads that are currently in progress, used to let concurrent misses wait for the same load.
+     * A write or invalidation of the key marks its load as stale, so the loaded value is not written into the cache anymore.
+     */
+    private final Map<K, PendingLoad<V>> pendingLoads = new ConcurrentHashMap<>();
+
+    /**
+     * Amount of lookups that found a valid entry.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Amount of lookups that did not find a valid entry.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Amount of entries that have been removed because of their size or age.
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor for a new cache.
+     *
+     * @param name        the name of the cache.
+     * @param maximumSize the maximum amount of entries.
+     * @param timeToLive  how long an entry is valid after it has been written.
+     * @param idleTime    how long an entry is valid after it has last been read, {@code null} or zero to disable it.
+     */
+    public ExpiringCache(String name, int maximumSize, Duration timeToLive, Duration idleTime) {
+        this.name = name;
+        this.maximumSize = Math.max(1, maximumSize);
+        this.timeToLive = timeToLive.toMillis();
+        this.idleTime = idleTime == null ? 0 : idleTime.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringCache.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        caches.add(this);
+    }
+
+    /**
+     * Get a value from the cache.
+     *
+     * @param key the key of the value.
+     * @return the value or {@code null} if there is no valid entry.
+     */
+    public V get(K key) {
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+
+            if (entry != null) {
+                if (!isExpired(entry, now)) {
+                    entry.lastAccess = now;
+                    hits.increment();
+                    return entry.value;
+                }
+
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Get a value from the cache or load it if there is no valid entry.
+     * Concurrent calls for the same key share a single load.
+     *
+     * @param key    the key of the value.
+     * @param loader the loader used when there is no valid entry.
+     * @return the value, {@code null} if the loader returned {@code null}.
+     * @throws Exception if the loader failed.
+     */
+    public V get(K key, Loader<K, V> loader) throws Exception {
+        V value = get(key);
+
+        if (value != null) {
+            return value;
+        }
+
+        return load(key, loader);
+    }
+
+    /**
+     * Load a value and write it into the cache, ignoring any existing entry.
+     * Concurrent calls for the same key share a single load.
+     *
+     * @param key    the key of the value.
+     * @param loader the loader used to retrieve the value.
+     * @return the value, {@code null} if the loader returned {@code null}.
+     * @throws Exception if the loader failed.
+     */
+    public V load(K key, Loader<K, V> loader) throws Exception {
+        PendingLoad<V> load = new PendingLoad<>();
+        PendingLoad<V> pending = pendingLoads.putIfAbsent(key, load);
+
+        if (pending != null) {
+            return await(pending.future);
+        }
+
+        try {
+            V value = loader.load(key);
+
+            if (value != null) {
+                synchronized (entries) {
+                    // The value has been loaded before the key was written or invalidated, so it is outdated.
+                    if (!load.stale) {
+                        entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+                    }
+                }
+            }
+
+            load.future.complete(value);
+            return value;
+        } catch (Exception exception) {
+            load.future.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            pendingLoads.remove(key, load);
+        }
+    }
+
+    /**
+     * Write a value into the cache.
+     *
+     * @param key   the key of the value.
+     * @param value the value.
+     */
+    public void put(K key, V value) {
+        synchronized (entries) {
+            markStale(key);
+            entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Remove a value from the cache.
+     *
+     * @param key the key of the value.
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            markStale(key);
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Remove every value that matches the given filter.
+     *
+     * @param filter the filter.
+     */
+    public void invalidateIf(BiPredicate<K, V> filter) {
+        synchronized (entries) {
+            // The values of pending loads are unknown yet, so all of them are treated as matching.
+            pendingLoads.keySet().forEach(this::markStale);
+            entries.entrySet().removeIf(entry -> filter.test(entry.getKey(), entry.getValue().value));
+        }
+    }
+
+    /**
+     * Remove every value from the cache.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            pendingLoads.keySet().forEach(this::markStale);
+            entries.clear();
+        }
+    }
+
+    /**
+     * Remove every expired entry.
+     */
+    public void cleanUp() {
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            entries.values().removeIf(entry -> {
+                if (isExpired(entry, now)) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Get the amount of entries, including expired entries that have not been cleaned up yet.
+     *
+     * @return the amount of entries.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Get the current statistics of the cache.
+     *
+     * @return the statistics.
+     */
+    public CacheStats getStats() {
+        return new CacheStats(name, size(), hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    /**
+     * Mark the pending load of a key as stale, the lock of the entries has to be held.
+     * Calls after this start a new load instead of waiting for the stale one.
+     *
+     * @param key the key.
+     */
+    private void markStale(K key) {
+        PendingLoad<V> pending = pendingLoads.remove(key);
+
+        if (pending != null) {
+            pending.stale = true;
+        }
+    }
+
+    /**
+     * Check if an entry is no longer valid.
+     *
+     * @param entry the entry.
+     * @param now   the current time in milliseconds.
+     * @return true, if the entry is expired.
+     */
+    private boolean isExpired(Entry<V> entry, long now) {
+        return now - entry.creation > timeToLive || (idleTime > 0 && now - entry.lastAccess > idleTime);
+    }
+
+    /**
+     * Wait for a pending load of another thread.
+     *
+     * @param pending the pending load.
+     * @return the loaded value.
+     * @throws Exception if the load failed.
+     */
+    private V await(CompletableFuture<V> pending) throws Exception {
+        try {
+            return pending.get();
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+
+            throw exception;
+        }
+    }
+
+    /**
+     * Get every cache that has been created.
+     *
+     * @return an unmodifiable list of the caches.
+     */
+    public static List<ExpiringCache<?, ?>> getCaches() {
+        return Collections.unmodifiableList(caches);
+    }
+
+    /**
+     * Loader used to retrieve a value that is not cached.
+     *
+     * @param <K> the type of the keys.
+     * @param <V> the type of the values.
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+
+        /**
+         * Load the value of the given key.
+         *
+         * @param key the key.
+         * @return the value.
+         * @throws Exception if the value could not be loaded.
+         */
+        V load(K key) throws Exception;
+    }
+
+    /**
+     * A load that is in progress.
+     *
+     * @param <V> the type of the value.
+     */
+    private static final class PendingLoad<V> {
+
+        /**
+         * The result of the load, shared with every concurrent call.
+         */
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        /**
+         * If the key has been written or invalidated since the load started.
+         */
+        private volatile boolean stale;
+    }
+
+    /**
+     * A single cached value.
+     *
+     * @param <V> the type of the value.
+     */
+    private static final class Entry<V> {
+
+        /**
+         * The cached value.
+         */
+        private final V value;
+
+        /**
+         * When the value was written.
+         */
+        private final long creation;
+
+        /**
+         * When the value was last read.
+         */
+        private volatile long lastAccess;
+
+        /**
+         * Constructor for a new entry.
+         *
+         * @param value    the cached value.
+         * @param creation when the value was written.
+         */
+        private Entry(V value, long creation) {
+            this.value = value;
+            this.creation = creation;
+            this.lastAccess = creation;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package de.presti.ree6.backend.utils.data.container;
+
+import de.presti.ree6.backend.utils.data.container.user.UserLevelContainer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardPageContainer {
+
+    String guildId;
+
+    LeaderboardType type;
+
+    List<UserLevelContainer> entries;
+
+    /**
+     * The rank of the first entry.
+     */
+    long startRank;
+
+    /**
+     * The cursor of the next page, {@code null} if this is the last page.
+     */
+    String nextCursor;
+}
@@ -0,0 +1,31 @@
+package de.presti.ree6.backend.utils.data.container;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardRankContainer {
+
+    String guildId;
+
+    LeaderboardType type;
+
+    /**
+     * The amount of Users on the Leaderboard.
+     */
+    long total;
+
+    LeaderboardRankEntryContainer entry;
+
+    /**
+     * The Users directly above and below, ordered by their rank.
+     */
+    List<LeaderboardRankEntryContainer> neighbors;
+}
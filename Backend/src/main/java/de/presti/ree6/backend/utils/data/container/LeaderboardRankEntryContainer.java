@@ -0,0 +1,20 @@
+package de.presti.ree6.backend.utils.data.container;
+
+import de.presti.ree6.backend.utils.data.container.user.UserContainer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardRankEntryContainer {
+
+    long rank;
+
+    long experience;
+
+    UserContainer user;
+}
@@ -0,0 +1,9 @@
+package de.presti.ree6.backend.utils.data.container;
+
+/**
+ * The types of Leaderboards a Guild has.
+ */
+public enum LeaderboardType {
+    CHAT,
+    VOICE
+}
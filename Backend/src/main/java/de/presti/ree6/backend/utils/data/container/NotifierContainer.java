@@ -1,5 +1,6 @@
 package de.presti.ree6.backend.utils.data.container;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -11,7 +12,22 @@ import lombok.Setter;
 @AllArgsConstructor
 public class NotifierContainer {
 
+    NotifierPlatform platform;
     String name;
     String message;
     ChannelContainer channel;
+
+    @JsonIgnore
+    long channelId;
+
+    @JsonIgnore
+    String webhookId;
+
+    public NotifierContainer(NotifierPlatform platform, String name, String message, long channelId, String webhookId) {
+        this.platform = platform;
+        this.name = name;
+        this.message = message;
+        this.channelId = channelId;
+        this.webhookId = webhookId;
+    }
 }
@@ -0,0 +1,50 @@
+package de.presti.ree6.backend.utils.data.container;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Progress of a bulk Notifier import.
+ * It is only written by the Thread running the import, so the counters don't need to be atomic.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotifierImportContainer {
+
+    String id;
+
+    @JsonIgnore
+    String guildId;
+
+    volatile String state;
+
+    int total;
+
+    volatile int processed;
+
+    volatile int created;
+
+    volatile int skipped;
+
+    volatile int webhooksCreated;
+
+    List<String> errors = new CopyOnWriteArrayList<>();
+
+    public NotifierImportContainer(String id, String guildId, int total) {
+        this.id = id;
+        this.guildId = guildId;
+        this.total = total;
+        this.state = "PENDING";
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return "COMPLETED".equals(state) || "FAILED".equals(state);
+    }
+}
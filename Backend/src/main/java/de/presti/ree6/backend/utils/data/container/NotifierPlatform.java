@@ -0,0 +1,12 @@
+package de.presti.ree6.backend.utils.data.container;
+
+/**
+ * The platforms a Notifier can be created for.
+ */
+public enum NotifierPlatform {
+    REDDIT,
+    TWITCH,
+    TWITTER,
+    YOUTUBE,
+    INSTAGRAM
+}
@@ -0,0 +1,22 @@
+package de.presti.ree6.backend.utils.data.container;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PunishmentPageContainer {
+
+    List<PunishmentContainer> punishments;
+
+    /**
+     * The cursor of the next page, {@code null} if this is the last page.
+     */
+    String nextCursor;
+}
@@ -1,8 +1,9 @@
 package de.presti.ree6.backend.utils.data.container;
 
 import de.presti.ree6.backend.bot.BotWorker;
+import de.presti.ree6.backend.bot.UserProfileCache;
 import de.presti.ree6.backend.utils.data.container.user.UserContainer;
-import de.presti.ree6.sql.entities.Recording;
+import de.presti.ree6.backend.utils.data.recording.RecordingMetadata;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -20,11 +21,10 @@ public class RecordContainer {
     ChannelContainer voiceChannel;
     UserContainer creator;
 
-    public RecordContainer(Recording recording) {
-        ///this.data = Base64.encodeBase64String(recording.getRecording());
-        this.creationTime = String.valueOf(recording.getCreation());
-        this.guildId = recording.getGuildId();
-        this.voiceChannel = new ChannelContainer(BotWorker.getShardManager().getChannelById(StandardGuildMessageChannel.class, recording.getVoiceId()));
-        this.creator = new UserContainer(BotWorker.getShardManager().retrieveUserById(recording.getCreatorId()).complete());
+    public RecordContainer(RecordingMetadata recording) {
+        this.creationTime = String.valueOf(recording.creation());
+        this.guildId = recording.guildId();
+        this.voiceChannel = new ChannelContainer(BotWorker.getShardManager().getChannelById(StandardGuildMessageChannel.class, recording.voiceId()));
+        this.creator = UserProfileCache.getUser(recording.creatorId());
     }
 }
@@ -0,0 +1,28 @@
+package de.presti.ree6.backend.utils.data.container;
+
+import de.presti.ree6.sql.entities.Setting;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettingsSyncContainer {
+
+    /**
+     * The version of the Settings, used as {@code since} with the next request.
+     */
+    long version;
+
+    /**
+     * If every Setting is contained, the client has to replace its Settings instead of applying the changes.
+     */
+    boolean complete;
+
+    List<Setting> settings;
+}
@@ -13,11 +13,16 @@ import lombok.Setter;
 @AllArgsConstructor
 public class WarningContainer {
 
+    /**
+     * The profile of the User, {@code null} if the User is no member of the Guild anymore.
+     */
     UserContainer user;
+    String userId;
     String guildId;
     String warnings;
 
     public WarningContainer(Warning warning) {
+        userId = String.valueOf(warning.getUserId());
         guildId = String.valueOf(warning.getGuildId());
         warnings = String.valueOf(warning.getWarnings());
     }
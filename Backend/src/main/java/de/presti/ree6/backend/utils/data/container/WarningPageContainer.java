@@ -0,0 +1,27 @@
+package de.presti.ree6.backend.utils.data.container;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarningPageContainer {
+
+    List<WarningContainer> warnings;
+
+    /**
+     * The IDs of the Users on this page that are no members of the Guild anymore.
+     */
+    List<String> unresolved;
+
+    /**
+     * The cursor of the next page, {@code null} if this is the last page.
+     */
+    String nextCursor;
+}
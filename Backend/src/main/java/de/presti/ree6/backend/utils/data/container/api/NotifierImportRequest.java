@@ -0,0 +1,11 @@
+package de.presti.ree6.backend.utils.data.container.api;
+
+/**
+ * Request for a single Notifier of a bulk import.
+ * @param platform Platform of the Notifier.
+ * @param channelId Channel ID of the Notifier.
+ * @param name Name of the Notifier.
+ * @param message Message of the Notifier.
+ */
+public record NotifierImportRequest(String platform, String channelId, String name, String message) {
+}
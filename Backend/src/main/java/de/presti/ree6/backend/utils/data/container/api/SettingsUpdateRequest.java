@@ -0,0 +1,10 @@
+package de.presti.ree6.backend.utils.data.container.api;
+
+import java.util.Map;
+
+/**
+ * Request to update multiple Settings at once.
+ * @param settings New Values of the Settings, keyed by the Setting Name.
+ */
+public record SettingsUpdateRequest(Map<String, String> settings) {
+}
@@ -6,7 +6,7 @@ import de.presti.ree6.backend.bot.BotWorker;
 import de.presti.ree6.backend.utils.data.Data;
 import de.presti.ree6.backend.utils.data.container.ChannelContainer;
 import de.presti.ree6.backend.utils.data.container.role.RoleContainer;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -18,12 +18,14 @@ import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class GuildContainer {
 
     String id;
@@ -36,21 +38,59 @@ public class GuildContainer {
 
     boolean isAdmin;
 
+    @Setter(AccessLevel.NONE)
     List<ChannelContainer> channels;
 
+    @Setter(AccessLevel.NONE)
     List<RoleContainer> roles;
 
     @JsonIgnore
-    ArrayList<Role> guildRoles = new ArrayList<>();
+    @Setter(AccessLevel.NONE)
+    List<Role> guildRoles;
 
     @JsonIgnore
-    ArrayList<GuildChannel> guildChannels = new ArrayList<>();
+    @Setter(AccessLevel.NONE)
+    List<GuildChannel> guildChannels;
 
     @JsonIgnore
     Guild guild;
 
+    /**
+     * If the Channels of the Guild should be loaded when they are first requested.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    boolean retrieveChannels;
+
+    /**
+     * If the Roles of the Guild should be loaded when they are first requested.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    boolean retrieveRoles;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    Map<String, ChannelContainer> channelIndex;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    Map<String, RoleContainer> roleIndex;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    Map<String, GuildChannel> guildChannelIndex;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    Map<String, Role> guildRoleIndex;
+
     public GuildContainer(String id, String name, String iconUrl, boolean hasBot, boolean isAdmin) {
-        this(id, name, iconUrl, hasBot, isAdmin, Collections.emptyList(), Collections.emptyList(), new ArrayList<>(), new ArrayList<>(), null);
+        this.id = id;
+        this.name = name;
+        this.iconUrl = iconUrl;
+        this.hasBot = hasBot;
+        this.isAdmin = isAdmin;
     }
 
     public GuildContainer(OAuth2Guild oAuth2Guild) {
@@ -70,43 +110,72 @@ public class GuildContainer {
 
     public GuildContainer(Guild guild, boolean retrieveChannels, boolean retrieveRoles) {
         this(guild);
+        this.retrieveChannels = retrieveChannels;
+        this.retrieveRoles = retrieveRoles;
+    }
 
-        if (retrieveChannels) {
-            getGuildChannels().clear();
-            getGuildChannels().addAll(guild.getChannels());
-            setChannels(getGuildChannels().stream().map(ChannelContainer::new).toList());
-        } else {
-            setChannels(Collections.emptyList());
+    public synchronized List<GuildChannel> getGuildChannels() {
+        if (guildChannels == null) {
+            guildChannels = retrieveChannels && getGuild() != null ? List.copyOf(getGuild().getChannels()) : Collections.emptyList();
         }
 
-        if (retrieveRoles) {
-            getGuildRoles().clear();
-            getGuildRoles().addAll(guild.getRoles());
-            getGuildRoles().remove(getGuildRoles().size() - 1);
-            setRoles(getGuildRoles().stream().map(RoleContainer::new).toList());
-        } else {
-            setRoles(Collections.emptyList());
+        return guildChannels;
+    }
+
+    public synchronized List<ChannelContainer> getChannels() {
+        if (channels == null) {
+            channels = getGuildChannels().stream().map(ChannelContainer::new).toList();
         }
+
+        return channels;
+    }
+
+    public synchronized List<Role> getGuildRoles() {
+        if (guildRoles == null) {
+            if (retrieveRoles && getGuild() != null) {
+                List<Role> guildRoleList = new ArrayList<>(getGuild().getRoles());
+
+                // The last Role is the public Role of the Guild.
+                if (!guildRoleList.isEmpty()) {
+                    guildRoleList.remove(guildRoleList.size() - 1);
+                }
+
+                guildRoles = Collections.unmodifiableList(guildRoleList);
+            } else {
+                guildRoles = Collections.emptyList();
+            }
+        }
+
+        return guildRoles;
+    }
+
+    public synchronized List<RoleContainer> getRoles() {
+        if (roles == null) {
+            roles = getGuildRoles().stream().map(RoleContainer::new).toList();
+        }
+
+        return roles;
     }
 
     public RoleContainer getRoleById(String id) {
-        return getRoles().stream().filter(role -> role.getId().equals(id)).findFirst().orElse(null);
+        return getRoleIndex().get(id);
     }
 
     public ChannelContainer getChannelById(String id) {
-        return getChannels().stream().filter(channel -> channel.getId().equals(id)).findFirst().orElse(null);
+        return getChannelIndex().get(id);
     }
 
     public Role getGuildRoleById(String id) {
-        return getGuildRoles().stream().filter(role -> role.getId().equals(id)).findFirst().orElse(null);
+        return getGuildRoleIndex().get(id);
     }
 
     public GuildChannel getGuildChannelById(String id) {
-        return getGuildChannels().stream().filter(channel -> channel.getId().equals(id)).findFirst().orElse(null);
+        return getGuildChannelIndex().get(id);
     }
 
     public ChannelContainer getCategoryById(String id) {
-        return getChannels().stream().filter(channel -> channel.getId().equals(id) && channel.getType() == ChannelType.CATEGORY).findFirst().orElse(null);
+        ChannelContainer channel = getChannelById(id);
+        return channel != null && channel.getType() == ChannelType.CATEGORY ? channel : null;
     }
 
     public Guild getGuild() {
@@ -117,4 +186,46 @@ public class GuildContainer {
         return guild;
     }
 
+    private synchronized Map<String, ChannelContainer> getChannelIndex() {
+        if (channelIndex == null) {
+            channelIndex = createIndex(getChannels(), ChannelContainer::getId);
+        }
+
+        return channelIndex;
+    }
+
+    private synchronized Map<String, RoleContainer> getRoleIndex() {
+        if (roleIndex == null) {
+            roleIndex = createIndex(getRoles(), RoleContainer::getId);
+        }
+
+        return roleIndex;
+    }
+
+    private synchronized Map<String, GuildChannel> getGuildChannelIndex() {
+        if (guildChannelIndex == null) {
+            guildChannelIndex = createIndex(getGuildChannels(), GuildChannel::getId);
+        }
+
+        return guildChannelIndex;
+    }
+
+    private synchronized Map<String, Role> getGuildRoleIndex() {
+        if (guildRoleIndex == null) {
+            guildRoleIndex = createIndex(getGuildRoles(), Role::getId);
+        }
+
+        return guildRoleIndex;
+    }
+
+    private static <T> Map<String, T> createIndex(List<T> values, Function<T, String> idFunction) {
+        Map<String, T> index = new HashMap<>(Math.max(16, values.size() * 2));
+
+        for (T value : values) {
+            index.putIfAbsent(idFunction.apply(value), value);
+        }
+
+        return index;
+    }
+
 }
@@ -0,0 +1,312 @@
+package de.presti.ree6.backend.utils.data.recording;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Store that keeps the audio as files on the local disk.
+ * Every file is named after the SHA-256 hash of its content, so identical audio is only kept once.
+ * The file of a Recording is found through a small reference file that is named after its identifier,
+ * and every file of audio lists the Recordings that reference it, so it can be removed once the last one is deleted.
+ * <pre>
+ * path/objects/ab/ab12...        the audio, named after its hash
+ * path/objects/ab/ab12....refs   the identifiers of the Recordings that reference the audio
+ * path/refs/identifier           the hash of the audio of a Recording
+ * path/tmp/                      files that are still being written
+ * </pre>
+ */
+public class FileRecordingStore implements RecordingStore {
+
+    /**
+     * The identifiers that can be used as a file name.
+     */
+    private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,128}");
+
+    private final Path objects;
+
+    private final Path refs;
+
+    private final Path tmp;
+
+    /**
+     * Lock held while references are added or removed, so audio is never removed while another Recording starts to reference it.
+     * The audio itself is written outside of it.
+     */
+    private final Object referenceLock = new Object();
+
+    /**
+     * Constructor for a new store.
+     *
+     * @param path the folder of the store, it is created if it does not exist.
+     * @throws IOException if the folders could not be created or the reference lists could not be written.
+     */
+    public FileRecordingStore(Path path) throws IOException {
+        objects = Files.createDirectories(path.resolve("objects"));
+        refs = Files.createDirectories(path.resolve("refs"));
+        tmp = Files.createDirectories(path.resolve("tmp"));
+
+        createReferenceLists();
+    }
+
+    @Override
+    public long getLength(String recordId) throws IOException {
+        Path object = getObject(recordId);
+        return object != null ? Files.size(object) : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The file is handed to {@link FileChannel#transferTo}, which lets the operating system copy it without
+     * passing the data through the heap whenever the target allows it.
+     */
+    @Override
+    public void transfer(String recordId, long start, long end, OutputStream outputStream) throws IOException {
+        Path object = getObject(recordId);
+
+        if (object == null)
+            throw new IOException("Recording " + recordId + " does not exist anymore!");
+
+        transferFile(object, start, end, outputStream);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The file of the audio is only removed once no other Recording references it.
+     */
+    @Override
+    public void delete(String recordId) throws IOException {
+        if (!isValidIdentifier(recordId)) return;
+
+        synchronized (referenceLock) {
+            Path ref = refs.resolve(recordId);
+            if (!Files.exists(ref)) return;
+
+            String hash = Files.readString(ref, StandardCharsets.UTF_8).trim();
+            Files.deleteIfExists(ref);
+            removeReference(hash, recordId);
+        }
+    }
+
+    /**
+     * Write the audio of a Recording into the store.
+     *
+     * @param recordId the identifier of the Recording.
+     * @param writer   the writer of the audio.
+     * @return the size of the stored audio in bytes.
+     * @throws IOException if the audio could not be written.
+     */
+    public long store(String recordId, AudioWriter writer) throws IOException {
+        if (!isValidIdentifier(recordId))
+            throw new IOException("Recording " + recordId + " has an invalid identifier!");
+
+        Path file = Files.createTempFile(tmp, "recording", ".tmp");
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            try (OutputStream outputStream = new DigestOutputStream(Files.newOutputStream(file), digest)) {
+                writer.write(outputStream);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path object = getObjectPath(hash);
+
+            synchronized (referenceLock) {
+                Files.createDirectories(object.getParent());
+
+                try {
+                    Files.move(file, object, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException ignore) {
+                    // The same audio is already stored.
+                }
+
+                Path ref = refs.resolve(recordId);
+                String previousHash = Files.exists(ref) ? Files.readString(ref, StandardCharsets.UTF_8).trim() : null;
+
+                addReference(hash, recordId);
+
+                // Write the reference last, so it never points to a missing file.
+                Path tmpRef = Files.createTempFile(tmp, "ref", ".tmp");
+                Files.writeString(tmpRef, hash, StandardCharsets.UTF_8);
+                Files.move(tmpRef, ref, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+                if (previousHash != null && !previousHash.equals(hash)) {
+                    removeReference(previousHash, recordId);
+                }
+
+                return Files.size(object);
+            }
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available!", exception);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Get the identifiers of every Recording in the store.
+     *
+     * @return the identifiers.
+     * @throws IOException if the store could not be read.
+     */
+    public List<String> getStoredRecordings() throws IOException {
+        try (Stream<Path> stream = Files.list(refs)) {
+            return stream.map(path -> path.getFileName().toString()).toList();
+        }
+    }
+
+    /**
+     * Write a range of a file with {@link FileChannel#transferTo}.
+     *
+     * @param file         the file.
+     * @param start        the first byte, starting at zero.
+     * @param end          the last byte, inclusive.
+     * @param outputStream the stream to write to.
+     * @throws IOException if the file could not be read or written.
+     */
+    static void transferFile(Path file, long start, long end, OutputStream outputStream) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long position = start;
+
+            while (position <= end) {
+                long transferred = fileChannel.transferTo(position, end - position + 1, target);
+
+                if (transferred <= 0)
+                    throw new IOException("File " + file.getFileName() + " is shorter than expected!");
+
+                position += transferred;
+            }
+        }
+
+        outputStream.flush();
+    }
+
+    /**
+     * Check if the identifier of a Recording can be used as a file name.
+     *
+     * @param recordId the identifier of the Recording.
+     * @return true, if it only contains letters, digits, dashes and underscores.
+     */
+    static boolean isValidIdentifier(String recordId) {
+        return recordId != null && IDENTIFIER_PATTERN.matcher(recordId).matches();
+    }
+
+    private Path getObject(String recordId) throws IOException {
+        if (!isValidIdentifier(recordId)) return null;
+
+        Path ref = refs.resolve(recordId);
+        if (!Files.exists(ref)) return null;
+
+        Path object = getObjectPath(Files.readString(ref, StandardCharsets.UTF_8).trim());
+        return Files.exists(object) ? object : null;
+    }
+
+    private Path getObjectPath(String hash) {
+        return objects.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path getReferenceListPath(String hash) {
+        return objects.resolve(hash.substring(0, 2)).resolve(hash + ".refs");
+    }
+
+    /**
+     * Add a Recording to the reference list of its audio, the reference lock has to be held.
+     *
+     * @param hash     the hash of the audio.
+     * @param recordId the identifier of the Recording.
+     * @throws IOException if the list could not be written.
+     */
+    private void addReference(String hash, String recordId) throws IOException {
+        Set<String> recordIds = readReferenceList(hash);
+
+        if (recordIds.add(recordId)) {
+            writeReferenceList(hash, recordIds);
+        }
+    }
+
+    /**
+     * Remove a Recording from the reference list of its audio and remove the audio once nothing references it,
+     * the reference lock has to be held.
+     *
+     * @param hash     the hash of the audio.
+     * @param recordId the identifier of the Recording.
+     * @throws IOException if the list or the audio could not be written or removed.
+     */
+    private void removeReference(String hash, String recordId) throws IOException {
+        Set<String> recordIds = readReferenceList(hash);
+        recordIds.remove(recordId);
+
+        if (recordIds.isEmpty()) {
+            Files.deleteIfExists(getObjectPath(hash));
+            Files.deleteIfExists(getReferenceListPath(hash));
+        } else {
+            writeReferenceList(hash, recordIds);
+        }
+    }
+
+    private Set<String> readReferenceList(String hash) throws IOException {
+        Path list = getReferenceListPath(hash);
+        return Files.exists(list) ? new LinkedHashSet<>(Files.readAllLines(list, StandardCharsets.UTF_8)) : new LinkedHashSet<>();
+    }
+
+    private void writeReferenceList(String hash, Set<String> recordIds) throws IOException {
+        Path list = Files.createTempFile(tmp, "refs", ".tmp");
+        Files.write(list, recordIds, StandardCharsets.UTF_8);
+        Files.move(list, getReferenceListPath(hash), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Create the reference lists of a store that has been written before they existed.
+     * Every reference is read once, afterwards a marker file prevents this from running again.
+     *
+     * @throws IOException if the references could not be read or the lists could not be written.
+     */
+    private void createReferenceLists() throws IOException {
+        Path marker = objects.resolve(".indexed");
+        if (Files.exists(marker)) return;
+
+        synchronized (referenceLock) {
+            try (Stream<Path> stream = Files.list(refs)) {
+                for (Path ref : stream.toList()) {
+                    addReference(Files.readString(ref, StandardCharsets.UTF_8).trim(), ref.getFileName().toString());
+                }
+            }
+
+            Files.createFile(marker);
+        }
+    }
+
+    /**
+     * Writer of the audio that is stored.
+     */
+    @FunctionalInterface
+    public interface AudioWriter {
+
+        /**
+         * Write the audio.
+         *
+         * @param outputStream the stream to write to.
+         * @throws IOException if the audio could not be written.
+         */
+        void write(OutputStream outputStream) throws IOException;
+    }
+}
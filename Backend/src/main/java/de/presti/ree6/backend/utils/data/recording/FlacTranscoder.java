@@ -0,0 +1,681 @@
+package de.presti.ree6.backend.utils.data.recording;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Stream that converts a PCM WAV file into a FLAC file while it is written, without keeping more than one block in the heap.
+ * Every channel of a block is encoded with the best fixed predictor and partitioned Rice coding, stereo audio is
+ * additionally decorrelated. Silence, which most voice recordings mostly consist of, becomes a constant subframe.
+ * Only the STREAMINFO block is written, its MD5 signature is left empty since the file is never seeked.
+ */
+public class FlacTranscoder extends OutputStream {
+
+    /**
+     * How many samples of every channel are encoded in one frame.
+     */
+    private static final int BLOCK_SIZE = 4096;
+
+    /**
+     * The highest fixed predictor order of FLAC.
+     */
+    private static final int MAX_FIXED_ORDER = 4;
+
+    /**
+     * The highest Rice partition order that is tried.
+     */
+    private static final int MAX_PARTITION_ORDER = 8;
+
+    /**
+     * The highest Rice parameter, the next value would be the escape code.
+     */
+    private static final int MAX_RICE_PARAMETER = 14;
+
+    /**
+     * How many bytes of the WAV header are read before the file is rejected.
+     */
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+
+    private static final int[] CRC8_TABLE = new int[256];
+
+    private static final int[] CRC16_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc8 = i;
+            int crc16 = i << 8;
+
+            for (int bit = 0; bit < 8; bit++) {
+                crc8 = (crc8 & 0x80) != 0 ? (crc8 << 1) ^ 0x07 : crc8 << 1;
+                crc16 = (crc16 & 0x8000) != 0 ? (crc16 << 1) ^ 0x8005 : crc16 << 1;
+            }
+
+            CRC8_TABLE[i] = crc8 & 0xFF;
+            CRC16_TABLE[i] = crc16 & 0xFFFF;
+        }
+    }
+
+    private final OutputStream outputStream;
+
+    /**
+     * The bytes of the WAV header, {@code null} once it has been read.
+     */
+    private ByteArrayOutputStream header = new ByteArrayOutputStream();
+
+    private int channels;
+
+    private int bitsPerSample;
+
+    private int blockAlign;
+
+    /**
+     * How many bytes of audio are left in the data chunk, -1 if the size is unknown.
+     */
+    private long remaining;
+
+    /**
+     * The audio of the current block.
+     */
+    private byte[] block;
+
+    private int blockLength;
+
+    private long frameNumber;
+
+    private long inputBytes;
+
+    private long outputBytes;
+
+    private final BitWriter writer = new BitWriter();
+
+    /**
+     * Constructor for a new transcoder.
+     *
+     * @param outputStream the stream the FLAC file is written to, it is not closed by this stream.
+     */
+    public FlacTranscoder(OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        inputBytes += length;
+
+        if (header != null) {
+            header.write(data, offset, length);
+            byte[] bytes = header.toByteArray();
+            int dataStart = readHeader(bytes);
+
+            if (dataStart < 0) {
+                if (bytes.length > MAX_HEADER_SIZE)
+                    throw new IOException("Recording is not a PCM WAV file!");
+                return;
+            }
+
+            header = null;
+            writeAudio(bytes, dataStart, bytes.length - dataStart);
+            return;
+        }
+
+        writeAudio(data, offset, length);
+    }
+
+    /**
+     * Encode the last block and flush the FLAC file.
+     *
+     * @throws IOException if the WAV file was incomplete or the FLAC file could not be written.
+     */
+    public void finish() throws IOException {
+        if (header != null)
+            throw new IOException("Recording is not a PCM WAV file!");
+
+        // An incomplete sample at the end is dropped.
+        int samples = blockLength / blockAlign;
+
+        if (samples > 0) {
+            encodeFrame(samples);
+        }
+
+        blockLength = 0;
+        outputStream.flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        outputStream.flush();
+    }
+
+    /**
+     * Get the amount of WAV bytes that have been written into this stream.
+     *
+     * @return the amount of bytes.
+     */
+    public long getInputBytes() {
+        return inputBytes;
+    }
+
+    /**
+     * Get the amount of FLAC bytes that have been written by this stream.
+     *
+     * @return the amount of bytes.
+     */
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    //region WAV
+
+    /**
+     * Read the WAV header and write the FLAC header once it is complete.
+     *
+     * @param bytes the bytes received so far.
+     * @return the offset of the audio, -1 if more bytes are needed.
+     * @throws IOException if the file is not a PCM WAV file.
+     */
+    private int readHeader(byte[] bytes) throws IOException {
+        if (bytes.length < 12) return -1;
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt(0) != 0x46464952 || buffer.getInt(8) != 0x45564157)
+            throw new IOException("Recording is not a PCM WAV file!");
+
+        int position = 12;
+        int sampleRate = 0;
+
+        while (position + 8 <= bytes.length) {
+            int chunkId = buffer.getInt(position);
+            long chunkSize = Integer.toUnsignedLong(buffer.getInt(position + 4));
+
+            if (chunkId == 0x61746164) {
+                if (channels == 0)
+                    throw new IOException("Recording is not a PCM WAV file!");
+
+                // Files that were written as a stream often don't know the size of their audio.
+                remaining = chunkSize == 0 || chunkSize == 0xFFFFFFFFL ? -1 : chunkSize;
+                block = new byte[BLOCK_SIZE * blockAlign];
+                writeStreamInfo(sampleRate, remaining >= 0 ? remaining / blockAlign : 0);
+                return position + 8;
+            }
+
+            if (position + 8 + chunkSize > bytes.length) return -1;
+
+            if (chunkId == 0x20746D66) {
+                int format = buffer.getShort(position + 8) & 0xFFFF;
+                channels = buffer.getShort(position + 10) & 0xFFFF;
+                sampleRate = buffer.getInt(position + 12);
+                blockAlign = buffer.getShort(position + 20) & 0xFFFF;
+                bitsPerSample = buffer.getShort(position + 22) & 0xFFFF;
+
+                if ((format != 1 && format != 0xFFFE) || channels < 1 || channels > 8 || sampleRate <= 0 || sampleRate > 655350 ||
+                        (bitsPerSample != 8 && bitsPerSample != 16 && bitsPerSample != 24) || blockAlign != channels * bitsPerSample / 8)
+                    throw new IOException("Recording uses an unsupported WAV format!");
+            }
+
+            // Chunks are padded to an even size.
+            position += 8 + (int) chunkSize + (int) (chunkSize & 1);
+        }
+
+        return -1;
+    }
+
+    private void writeAudio(byte[] data, int offset, int length) throws IOException {
+        if (remaining >= 0) {
+            // Chunks after the audio are ignored.
+            length = (int) Math.min(length, remaining);
+            remaining -= length;
+        }
+
+        while (length > 0) {
+            int copied = Math.min(length, block.length - blockLength);
+            System.arraycopy(data, offset, block, blockLength, copied);
+            blockLength += copied;
+            offset += copied;
+            length -= copied;
+
+            if (blockLength == block.length) {
+                encodeFrame(BLOCK_SIZE);
+                blockLength = 0;
+            }
+        }
+    }
+
+    private int readSample(int offset) {
+        return switch (bitsPerSample) {
+            case 8 -> (block[offset] & 0xFF) - 128;
+            case 16 -> (block[offset] & 0xFF) | (block[offset + 1] << 8);
+            default -> (block[offset] & 0xFF) | ((block[offset + 1] & 0xFF) << 8) | (block[offset + 2] << 16);
+        };
+    }
+
+    //endregion
+
+    //region FLAC
+
+    private void writeStreamInfo(int sampleRate, long totalSamples) throws IOException {
+        writer.reset();
+        writer.write(0x664C6143, 32);
+        // Last metadata block, type STREAMINFO, 34 bytes.
+        writer.write(0x80, 8);
+        writer.write(34, 24);
+        writer.write(BLOCK_SIZE, 16);
+        writer.write(BLOCK_SIZE, 16);
+        writer.write(0, 24);
+        writer.write(0, 24);
+        writer.write(sampleRate, 20);
+        writer.write(channels - 1, 3);
+        writer.write(bitsPerSample - 1, 5);
+        writer.write((int) (totalSamples >>> 32), 4);
+        writer.write((int) totalSamples, 32);
+
+        for (int i = 0; i < 4; i++) {
+            writer.write(0, 32);
+        }
+
+        writeOutput();
+    }
+
+    private void encodeFrame(int samples) throws IOException {
+        int[][] audio = new int[channels][samples];
+
+        for (int i = 0; i < samples; i++) {
+            for (int channel = 0; channel < channels; channel++) {
+                audio[channel][i] = readSample(i * blockAlign + channel * (bitsPerSample / 8));
+            }
+        }
+
+        int assignment = channels - 1;
+        Subframe[] subframes = new Subframe[channels];
+
+        for (int channel = 0; channel < channels; channel++) {
+            subframes[channel] = new Subframe(audio[channel], bitsPerSample);
+        }
+
+        if (channels == 2) {
+            int[] side = new int[samples];
+            int[] mid = new int[samples];
+
+            for (int i = 0; i < samples; i++) {
+                side[i] = audio[0][i] - audio[1][i];
+                mid[i] = (audio[0][i] + audio[1][i]) >> 1;
+            }
+
+            Subframe left = subframes[0];
+            Subframe right = subframes[1];
+            Subframe sideFrame = new Subframe(side, bitsPerSample + 1);
+            Subframe midFrame = new Subframe(mid, bitsPerSample);
+
+            // Keep the first of the cheapest channel assignments.
+            long best = left.bits + right.bits;
+
+            if (left.bits + sideFrame.bits < best) {
+                best = left.bits + sideFrame.bits;
+                assignment = 8;
+                subframes = new Subframe[]{left, sideFrame};
+            }
+
+            if (sideFrame.bits + right.bits < best) {
+                best = sideFrame.bits + right.bits;
+                assignment = 9;
+                subframes = new Subframe[]{sideFrame, right};
+            }
+
+            if (midFrame.bits + sideFrame.bits < best) {
+                assignment = 10;
+                subframes = new Subframe[]{midFrame, sideFrame};
+            }
+        }
+
+        writer.reset();
+
+        // Sync code, reserved bit and fixed block size.
+        writer.write(0xFFF8, 16);
+        writer.write(samples == BLOCK_SIZE ? 0b1100 : 0b0111, 4);
+        // The sample rate is taken from the STREAMINFO block.
+        writer.write(0, 4);
+        writer.write(assignment, 4);
+        writer.write(bitsPerSample == 8 ? 0b001 : bitsPerSample == 16 ? 0b100 : 0b110, 3);
+        writer.write(0, 1);
+        writeFrameNumber(frameNumber++);
+
+        if (samples != BLOCK_SIZE) {
+            writer.write(samples - 1, 16);
+        }
+
+        writer.write(writer.crc8(), 8);
+
+        for (Subframe subframe : subframes) {
+            subframe.write(writer);
+        }
+
+        writer.align();
+        writer.write(writer.crc16(), 16);
+        writeOutput();
+    }
+
+    private void writeFrameNumber(long number) {
+        if (number < 0x80) {
+            writer.write((int) number, 8);
+            return;
+        }
+
+        int bytes = number < 0x800 ? 2 : number < 0x10000 ? 3 : number < 0x200000 ? 4 : number < 0x4000000 ? 5 : 6;
+        int firstBits = 7 - bytes;
+
+        writer.write((0xFF00 >> bytes) & 0xFF | (int) (number >>> (6 * (bytes - 1))) & ((1 << firstBits) - 1), 8);
+
+        for (int i = bytes - 2; i >= 0; i--) {
+            writer.write(0x80 | (int) (number >>> (6 * i)) & 0x3F, 8);
+        }
+    }
+
+    private void writeOutput() throws IOException {
+        outputStream.write(writer.buffer, 0, writer.length);
+        outputBytes += writer.length;
+    }
+
+    /**
+     * The cheapest encoding of a single channel of a frame.
+     */
+    private static class Subframe {
+
+        private final int[] samples;
+
+        private final int bitsPerSample;
+
+        /**
+         * The fixed predictor order, -1 for a constant and -2 for a verbatim subframe.
+         */
+        private int order;
+
+        private int[] residual;
+
+        private int partitionOrder;
+
+        private int[] parameters;
+
+        /**
+         * The size of the subframe in bits.
+         */
+        private long bits;
+
+        Subframe(int[] samples, int bitsPerSample) {
+            this.samples = samples;
+            this.bitsPerSample = bitsPerSample;
+            analyze();
+        }
+
+        private void analyze() {
+            int n = samples.length;
+            boolean constant = true;
+
+            for (int i = 1; i < n && constant; i++) {
+                constant = samples[i] == samples[0];
+            }
+
+            if (constant) {
+                order = -1;
+                bits = 8L + bitsPerSample;
+                return;
+            }
+
+            // Pick the predictor with the smallest residual, then the cheapest partitioning for it.
+            int bestOrder = 0;
+            long bestSum = Long.MAX_VALUE;
+
+            for (int candidate = 0; candidate <= Math.min(MAX_FIXED_ORDER, n - 1); candidate++) {
+                long sum = 0;
+
+                for (int i = candidate; i < n; i++) {
+                    sum += Math.abs(predict(candidate, i));
+                }
+
+                if (sum < bestSum) {
+                    bestSum = sum;
+                    bestOrder = candidate;
+                }
+            }
+
+            int[] folded = new int[n - bestOrder];
+
+            for (int i = bestOrder; i < n; i++) {
+                long value = predict(bestOrder, i);
+
+                if (value > Integer.MAX_VALUE / 2 || value < Integer.MIN_VALUE / 2) {
+                    setVerbatim();
+                    return;
+                }
+
+                folded[i - bestOrder] = (int) ((value << 1) ^ (value >> 63));
+            }
+
+            // Sum the residual of the finest partitioning once, coarser ones are combined from it.
+            int maxPartitionOrder = 0;
+
+            while (maxPartitionOrder < MAX_PARTITION_ORDER && n % (1 << (maxPartitionOrder + 1)) == 0 &&
+                    (n >> (maxPartitionOrder + 1)) > bestOrder) {
+                maxPartitionOrder++;
+            }
+
+            long[] sums = new long[1 << maxPartitionOrder];
+
+            for (int partition = 0; partition < sums.length; partition++) {
+                int start = partition == 0 ? 0 : partition * (n >> maxPartitionOrder) - bestOrder;
+                int end = (partition + 1) * (n >> maxPartitionOrder) - bestOrder;
+
+                for (int i = start; i < end; i++) {
+                    sums[partition] += Integer.toUnsignedLong(folded[i]);
+                }
+            }
+
+            long bestBits = Long.MAX_VALUE;
+
+            for (int partitions = maxPartitionOrder; partitions >= 0; partitions--) {
+                if (partitions < maxPartitionOrder) {
+                    long[] combined = new long[1 << partitions];
+
+                    for (int partition = 0; partition < combined.length; partition++) {
+                        combined[partition] = sums[partition * 2] + sums[partition * 2 + 1];
+                    }
+
+                    sums = combined;
+                }
+
+                int[] partitionParameters = new int[1 << partitions];
+                long partitionBits = 0;
+
+                for (int partition = 0; partition < partitionParameters.length; partition++) {
+                    int count = (n >> partitions) - (partition == 0 ? bestOrder : 0);
+                    int parameter = 0;
+                    long parameterBits = Long.MAX_VALUE;
+
+                    // Estimate the size from the sum, it is at most one bit per sample off.
+                    for (int candidate = 0; candidate <= MAX_RICE_PARAMETER; candidate++) {
+                        long bits = (long) count * (candidate + 1) + (sums[partition] >>> candidate);
+
+                        if (bits < parameterBits) {
+                            parameterBits = bits;
+                            parameter = candidate;
+                        }
+                    }
+
+                    partitionParameters[partition] = parameter;
+                    partitionBits += 4 + parameterBits;
+                }
+
+                if (partitionBits < bestBits) {
+                    bestBits = partitionBits;
+                    partitionOrder = partitions;
+                    parameters = partitionParameters;
+                }
+            }
+
+            order = bestOrder;
+            residual = folded;
+            bits = 8L + (long) bestOrder * bitsPerSample + 6 + bestBits;
+
+            if (bits >= 8L + (long) n * bitsPerSample) {
+                setVerbatim();
+            }
+        }
+
+        private void setVerbatim() {
+            order = -2;
+            residual = null;
+            bits = 8L + (long) samples.length * bitsPerSample;
+        }
+
+        private long predict(int order, int i) {
+            return switch (order) {
+                case 0 -> samples[i];
+                case 1 -> (long) samples[i] - samples[i - 1];
+                case 2 -> (long) samples[i] - 2L * samples[i - 1] + samples[i - 2];
+                case 3 -> (long) samples[i] - 3L * samples[i - 1] + 3L * samples[i - 2] - samples[i - 3];
+                default -> (long) samples[i] - 4L * samples[i - 1] + 6L * samples[i - 2] - 4L * samples[i - 3] + samples[i - 4];
+            };
+        }
+
+        void write(BitWriter writer) {
+            switch (order) {
+                case -1 -> {
+                    writer.write(0, 8);
+                    writer.write(samples[0], bitsPerSample);
+                }
+                case -2 -> {
+                    writer.write(0b00000010, 8);
+
+                    for (int sample : samples) {
+                        writer.write(sample, bitsPerSample);
+                    }
+                }
+                default -> {
+                    writer.write((0b001000 | order) << 1, 8);
+
+                    for (int i = 0; i < order; i++) {
+                        writer.write(samples[i], bitsPerSample);
+                    }
+
+                    // Rice coding with 4 bit parameters.
+                    writer.write(0, 2);
+                    writer.write(partitionOrder, 4);
+
+                    int n = samples.length;
+
+                    for (int partition = 0; partition < parameters.length; partition++) {
+                        int start = partition == 0 ? 0 : partition * (n >> partitionOrder) - order;
+                        int end = (partition + 1) * (n >> partitionOrder) - order;
+                        int parameter = parameters[partition];
+
+                        writer.write(parameter, 4);
+
+                        for (int i = start; i < end; i++) {
+                            long value = Integer.toUnsignedLong(residual[i]);
+                            writer.writeUnary(value >>> parameter);
+
+                            if (parameter > 0) {
+                                writer.write((int) value, parameter);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writer of single bits, used for one metadata block or frame at a time.
+     */
+    private static class BitWriter {
+
+        private byte[] buffer = new byte[64 * 1024];
+
+        private int length;
+
+        private long bits;
+
+        private int bitCount;
+
+        void reset() {
+            length = 0;
+            bits = 0;
+            bitCount = 0;
+        }
+
+        /**
+         * Write the lowest bits of a value.
+         *
+         * @param value the value.
+         * @param count the amount of bits, at most 32.
+         */
+        void write(int value, int count) {
+            bits = (bits << count) | (value & (0xFFFFFFFFL >>> (32 - count)));
+            bitCount += count;
+
+            while (bitCount >= 8) {
+                bitCount -= 8;
+                writeByte((int) (bits >>> bitCount));
+            }
+
+            bits &= (1L << bitCount) - 1;
+        }
+
+        /**
+         * Write a value in unary coding, as zeros followed by a one.
+         *
+         * @param value the value.
+         */
+        void writeUnary(long value) {
+            while (value >= 32) {
+                write(0, 32);
+                value -= 32;
+            }
+
+            write(1, (int) value + 1);
+        }
+
+        void align() {
+            if (bitCount > 0) {
+                write(0, 8 - bitCount);
+            }
+        }
+
+        int crc8() {
+            int crc = 0;
+
+            for (int i = 0; i < length; i++) {
+                crc = CRC8_TABLE[(crc ^ buffer[i]) & 0xFF];
+            }
+
+            return crc;
+        }
+
+        int crc16() {
+            int crc = 0;
+
+            for (int i = 0; i < length; i++) {
+                crc = ((crc << 8) ^ CRC16_TABLE[((crc >>> 8) ^ buffer[i]) & 0xFF]) & 0xFFFF;
+            }
+
+            return crc;
+        }
+
+        private void writeByte(int value) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+
+            buffer[length++] = (byte) value;
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,11 @@
+package de.presti.ree6.backend.utils.data.recording;
+
+/**
+ * A Recording that has been checked for a download.
+ *
+ * @param recordId the identifier of the Recording.
+ * @param format   the format the Recording is downloaded in.
+ * @param length   the size of the download in bytes.
+ */
+public record RecordingDownload(String recordId, RecordingFormat format, long length) {
+}
@@ -0,0 +1,29 @@
+package de.presti.ree6.backend.utils.data.recording;
+
+import lombok.Getter;
+
+/**
+ * The formats a Recording can be downloaded in.
+ */
+@Getter
+public enum RecordingFormat {
+
+    /**
+     * The stored audio, without any conversion.
+     */
+    WAV("wav"),
+
+    /**
+     * Lossless compression, encoded by the {@link FlacTranscoder}.
+     */
+    FLAC("flac");
+
+    /**
+     * The file extension of the format.
+     */
+    private final String extension;
+
+    RecordingFormat(String extension) {
+        this.extension = extension;
+    }
+}
@@ -0,0 +1,26 @@
+package de.presti.ree6.backend.utils.data.recording;
+
+import java.util.Set;
+
+/**
+ * Everything of a Recording except its audio, used to check who may access it.
+ *
+ * @param recordId     the identifier of the Recording.
+ * @param guildId      the ID of the Guild the Recording was made in.
+ * @param voiceId      the ID of the voice channel that was recorded.
+ * @param creatorId    the ID of the User that started the Recording.
+ * @param creation     the time the Recording was made at, in milliseconds.
+ * @param participants the IDs of the Users that were part of the Recording.
+ */
+public record RecordingMetadata(String recordId, String guildId, String voiceId, String creatorId, long creation, Set<String> participants) {
+
+    /**
+     * Check if a User was part of the Recording.
+     *
+     * @param userId the ID of the User.
+     * @return true, if the User was part of it.
+     */
+    public boolean isParticipant(String userId) {
+        return participants.contains(userId);
+    }
+}
@@ -0,0 +1,39 @@
+package de.presti.ree6.backend.utils.data.recording;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Storage of the audio of Recordings.
+ * The metadata of a Recording always stays in the database, a store only holds its audio.
+ */
+public interface RecordingStore {
+
+    /**
+     * Get the size of the audio of a Recording.
+     *
+     * @param recordId the identifier of the Recording.
+     * @return the size in bytes, -1 if the store does not hold the audio.
+     * @throws IOException if the store could not be read.
+     */
+    long getLength(String recordId) throws IOException;
+
+    /**
+     * Write a range of the audio of a Recording.
+     *
+     * @param recordId     the identifier of the Recording.
+     * @param start        the first byte, starting at zero.
+     * @param end          the last byte, inclusive.
+     * @param outputStream the stream to write to.
+     * @throws IOException if the audio could not be read or written.
+     */
+    void transfer(String recordId, long start, long end, OutputStream outputStream) throws IOException;
+
+    /**
+     * Remove the audio of a Recording, if the store holds it.
+     *
+     * @param recordId the identifier of the Recording.
+     * @throws IOException if the audio could not be removed.
+     */
+    void delete(String recordId) throws IOException;
+}
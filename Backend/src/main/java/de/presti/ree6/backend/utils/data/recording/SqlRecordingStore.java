@@ -0,0 +1,142 @@
+package de.presti.ree6.backend.utils.data.recording;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Store that reads the audio from the blob column of the Recording table, where the Bot writes it to.
+ * The audio is read in chunks of a fixed size, so a transfer never holds more than one chunk in the heap.
+ */
+public class SqlRecordingStore implements RecordingStore {
+
+    /**
+     * How many bytes are read from the database at once.
+     */
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final DataSource dataSource;
+
+    private final String chunkQuery;
+
+    private final String lengthQuery;
+
+    private final String clearQuery;
+
+    private final String storedQuery;
+
+    /**
+     * Constructor for a new store.
+     *
+     * @param dataSource       the database.
+     * @param table            the name of the Recording table.
+     * @param audioColumn      the name of the column with the audio.
+     * @param identifierColumn the name of the column with the identifier.
+     */
+    public SqlRecordingStore(DataSource dataSource, String table, String audioColumn, String identifierColumn) {
+        this.dataSource = dataSource;
+
+        chunkQuery = "SELECT SUBSTR(" + audioColumn + ", ?, ?) FROM " + table + " WHERE " + identifierColumn + " = ?";
+        lengthQuery = "SELECT LENGTH(" + audioColumn + ") FROM " + table + " WHERE " + identifierColumn + " = ?";
+        clearQuery = "UPDATE " + table + " SET " + audioColumn + " = ? WHERE " + identifierColumn + " = ?";
+        storedQuery = "SELECT " + identifierColumn + " FROM " + table + " WHERE LENGTH(" + audioColumn + ") > 0";
+    }
+
+    @Override
+    public long getLength(String recordId) throws IOException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(lengthQuery)) {
+            statement.setString(1, recordId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : -1;
+            }
+        } catch (SQLException exception) {
+            throw new IOException("Could not read the Recording " + recordId + "!", exception);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Every chunk is read with its own connection, so slow clients don't hold a connection of the pool.
+     */
+    @Override
+    public void transfer(String recordId, long start, long end, OutputStream outputStream) throws IOException {
+        for (long position = start; position <= end; position += CHUNK_SIZE) {
+            int length = (int) Math.min(CHUNK_SIZE, end - position + 1);
+            byte[] chunk;
+
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(chunkQuery)) {
+                // SQL counts the bytes starting at one.
+                statement.setLong(1, position + 1);
+                statement.setInt(2, length);
+                statement.setString(3, recordId);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next())
+                        throw new IOException("Recording " + recordId + " does not exist anymore!");
+
+                    chunk = resultSet.getBytes(1);
+                }
+            } catch (SQLException exception) {
+                throw new IOException("Could not read the Recording " + recordId + "!", exception);
+            }
+
+            if (chunk == null || chunk.length != length)
+                throw new IOException("Recording " + recordId + " is shorter than expected!");
+
+            outputStream.write(chunk);
+        }
+
+        outputStream.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The row itself is kept, since it still holds the metadata of the Recording.
+     */
+    @Override
+    public void delete(String recordId) throws IOException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(clearQuery)) {
+            statement.setBytes(1, new byte[0]);
+            statement.setString(2, recordId);
+            statement.executeUpdate();
+        } catch (SQLException exception) {
+            throw new IOException("Could not clear the Recording " + recordId + "!", exception);
+        }
+    }
+
+    /**
+     * Get the identifiers of Recordings whose audio is still held by the database.
+     *
+     * @param limit the maximal amount of identifiers.
+     * @return the identifiers.
+     * @throws IOException if the database could not be read.
+     */
+    public List<String> getStoredRecordings(int limit) throws IOException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(storedQuery)) {
+            statement.setMaxRows(limit);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<String> recordIds = new ArrayList<>();
+
+                while (resultSet.next()) {
+                    recordIds.add(resultSet.getString(1));
+                }
+
+                return recordIds;
+            }
+        } catch (SQLException exception) {
+            throw new IOException("Could not read the Recordings!", exception);
+        }
+    }
+}
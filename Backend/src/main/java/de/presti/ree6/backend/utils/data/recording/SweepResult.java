@@ -0,0 +1,12 @@
+package de.presti.ree6.backend.utils.data.recording;
+
+/**
+ * Result of a single run of the Recording expiry sweep.
+ *
+ * @param purged   the amount of Recordings that have been deleted.
+ * @param batches  the amount of delete statements that have been run.
+ * @param duration the time the run took, in milliseconds.
+ * @param finished the time the run finished at, in milliseconds.
+ */
+public record SweepResult(int purged, int batches, long duration, long finished) {
+}
@@ -0,0 +1,203 @@
+package de.presti.ree6.backend.utils.data.recording;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Cache of converted Recordings on the local disk, so a Recording is only converted once per format.
+ * A conversion is written into a temporary file and only added to the cache once it is complete, every
+ * download is served from the cache so its size is known and ranges can be requested.
+ */
+@Slf4j
+public class TranscodeCache {
+
+    private static final LongAdder transcodes = new LongAdder();
+
+    private static final LongAdder inputBytes = new LongAdder();
+
+    private static final LongAdder outputBytes = new LongAdder();
+
+    private static final LongAdder transcodeNanos = new LongAdder();
+
+    private final Path path;
+
+    private final Path tmp;
+
+    /**
+     * The locks of the running conversions, so every Recording is only converted once at a time.
+     */
+    private final Map<Path, Object> conversions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for a new cache.
+     *
+     * @param path the folder of the cache, it is created if it does not exist.
+     * @throws IOException if the folders could not be created.
+     */
+    public TranscodeCache(Path path) throws IOException {
+        this.path = Files.createDirectories(path);
+        this.tmp = Files.createDirectories(path.resolve("tmp"));
+    }
+
+    /**
+     * Get the size of a converted Recording.
+     *
+     * @param recordId the identifier of the Recording.
+     * @param format   the format.
+     * @return the size in bytes, -1 if it has not been converted yet.
+     * @throws IOException if the cache could not be read.
+     */
+    public long getLength(String recordId, RecordingFormat format) throws IOException {
+        Path file = getFile(recordId, format);
+        return file != null && Files.exists(file) ? Files.size(file) : -1;
+    }
+
+    /**
+     * Write a range of a converted Recording.
+     *
+     * @param recordId     the identifier of the Recording.
+     * @param format       the format.
+     * @param start        the first byte, starting at zero.
+     * @param end          the last byte, inclusive.
+     * @param outputStream the stream to write to.
+     * @throws IOException if the file could not be read or written.
+     */
+    public void transfer(String recordId, RecordingFormat format, long start, long end, OutputStream outputStream) throws IOException {
+        Path file = getFile(recordId, format);
+
+        if (file == null || !Files.exists(file))
+            throw new IOException("Recording " + recordId + " has not been converted!");
+
+        FileRecordingStore.transferFile(file, start, end, outputStream);
+    }
+
+    /**
+     * Convert a Recording into the cache, if it has not been converted yet.
+     * Concurrent calls for the same Recording wait for the first conversion instead of starting their own.
+     *
+     * @param recordId the identifier of the Recording.
+     * @param format   the format.
+     * @param source   the writer of the WAV file.
+     * @return the size of the converted Recording in bytes.
+     * @throws IOException if the Recording could not be converted.
+     */
+    public long convert(String recordId, RecordingFormat format, FileRecordingStore.AudioWriter source) throws IOException {
+        Path target = getFile(recordId, format);
+
+        if (target == null)
+            throw new IOException("Recording " + recordId + " has an invalid identifier!");
+
+        Object lock = conversions.computeIfAbsent(target, key -> new Object());
+
+        try {
+            synchronized (lock) {
+                if (Files.exists(target)) {
+                    return Files.size(target);
+                }
+
+                transcode(recordId, format, source, target);
+                return Files.size(target);
+            }
+        } finally {
+            conversions.remove(target, lock);
+        }
+    }
+
+    private void transcode(String recordId, RecordingFormat format, FileRecordingStore.AudioWriter source, Path target) throws IOException {
+        Path file = Files.createTempFile(tmp, recordId, ".tmp");
+
+        try {
+            long started = System.nanoTime();
+            FlacTranscoder transcoder;
+
+            try (OutputStream fileStream = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+                transcoder = switch (format) {
+                    case FLAC -> new FlacTranscoder(fileStream);
+                    case WAV -> throw new IOException("Recordings are stored as WAV!");
+                };
+
+                source.write(transcoder);
+                transcoder.finish();
+            }
+
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            long nanos = System.nanoTime() - started;
+            transcodes.increment();
+            inputBytes.add(transcoder.getInputBytes());
+            outputBytes.add(transcoder.getOutputBytes());
+            transcodeNanos.add(nanos);
+
+            log.info("Converted Recording {} to {}: {} -> {} bytes ({}% saved) at {} MB/s.", recordId, format.name(),
+                    transcoder.getInputBytes(), transcoder.getOutputBytes(), getSavedPercent(transcoder.getInputBytes(), transcoder.getOutputBytes()),
+                    getThroughput(transcoder.getInputBytes(), nanos));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Remove every converted file of a Recording.
+     *
+     * @param recordId the identifier of the Recording.
+     * @throws IOException if a file could not be removed.
+     */
+    public void delete(String recordId) throws IOException {
+        for (RecordingFormat format : RecordingFormat.values()) {
+            Path file = getFile(recordId, format);
+
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Get the identifiers of every Recording in the cache.
+     *
+     * @return the identifiers.
+     * @throws IOException if the cache could not be read.
+     */
+    public List<String> getCachedRecordings() throws IOException {
+        try (Stream<Path> stream = Files.list(path)) {
+            return stream.filter(Files::isRegularFile)
+                    .map(file -> file.getFileName().toString())
+                    .map(name -> name.substring(0, name.lastIndexOf('.')))
+                    .distinct()
+                    .toList();
+        }
+    }
+
+    /**
+     * Get a summary of every conversion since the start, used to see what the compression saves.
+     *
+     * @return the summary.
+     */
+    public static String getStats() {
+        return String.format("%d conversions, %d -> %d bytes (%d%% saved), %s MB/s", transcodes.sum(), inputBytes.sum(), outputBytes.sum(),
+                getSavedPercent(inputBytes.sum(), outputBytes.sum()), getThroughput(inputBytes.sum(), transcodeNanos.sum()));
+    }
+
+    private Path getFile(String recordId, RecordingFormat format) {
+        return FileRecordingStore.isValidIdentifier(recordId) ? path.resolve(recordId + "." + format.getExtension()) : null;
+    }
+
+    private static long getSavedPercent(long input, long output) {
+        return input > 0 ? Math.round(100.0 * (input - output) / input) : 0;
+    }
+
+    private static String getThroughput(long bytes, long nanos) {
+        return nanos > 0 ? String.format("%.1f", bytes / 1_000_000.0 / (nanos / 1_000_000_000.0)) : "0";
+    }
+}
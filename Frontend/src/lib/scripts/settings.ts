@@ -9,6 +9,8 @@ export type Setting = {
 
 export let settingsLoading = writable(true);
 let settings: Map<string, Setting> = new Map<string, Setting>();
+let settingsGuild: string | null = null;
+let settingsVersion = 0;
 
 export function createSetting(name: string, displayName: string, value: string) {
 
@@ -61,6 +63,26 @@ export async function updateSetting(name: string, guild: string, value: string)
     settings.set(name, setting);
 }
 
+export async function updateSettings(guild: string, values: Map<string, string>): Promise<boolean> {
+    if(values.size == 0) {
+        return true;
+    }
+
+    const json = await post_js("/settings/" + guild + "/update", JSON.stringify({
+        "settings": Object.fromEntries(values)
+    }))
+
+    if(!json.success) {
+        return false;
+    }
+
+    values.forEach((value, name) => {
+        setting(name).value.set(value);
+    });
+
+    return true;
+}
+
 export function allSettings(prefix: string): Map<string, Setting> {
 
     const map = new Map<string, Setting>();
@@ -77,19 +99,45 @@ export function allSettings(prefix: string): Map<string, Setting> {
 export async function loadSettings(guild: string) {
     settingsLoading.set(true);
 
-    const res = await get("/settings/"  + guild + "/");
+    // Only the changes since the last visit are requested, if the Settings of the same Guild are still loaded.
+    const since = settingsGuild == guild ? settingsVersion : 0;
+    const res = await get("/settings/" + guild + "/?since=" + since);
+
+    if (res.status == 304) {
+        settingsLoading.set(false);
+        return;
+    }
 
     if (res.status != 200) {
         return;
     }
 
     const data = await res.json();
-    console.log(data);
-    const objects: any[] = data.object;
-    
+
+    if (!data.success) {
+        return;
+    }
+
+    const objects: any[] = data.object.settings;
+
+    // A complete response replaces every Setting, the ones it does not contain are from an older state or another Guild.
+    if (data.object.complete) {
+        const names = new Set(objects.map((obj) => obj.name));
+
+        settings.forEach((setting, name) => {
+            if (!names.has(name)) {
+                setting.value.set(":loading");
+                settings.delete(name);
+            }
+        });
+    }
+
     objects.forEach((obj) => {
         createSetting(obj.name, obj.displayName, obj.value)
     });
 
+    settingsGuild = guild;
+    settingsVersion = data.object.version;
+
     settingsLoading.set(false);
-}
\ No newline at end of file
+}